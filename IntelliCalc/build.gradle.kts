@@ -28,6 +28,10 @@ intellij {
 
 }
 
+dependencies {
+    "implementation"(project(":IntelliCalcCore"))
+}
+
 tasks {
     patchPluginXml {
         changeNotes(project.file("CHANGE_NOTES.html").readText())
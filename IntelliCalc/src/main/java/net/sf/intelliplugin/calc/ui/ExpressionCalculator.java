@@ -23,14 +23,16 @@ package net.sf.intelliplugin.calc.ui;
 
 import com.intellij.ui.JBColor;
 import net.sf.intelliplugin.calc.Mode;
+import net.sf.intelliplugin.calc.calculator.CalcEngine;
+import net.sf.intelliplugin.calc.math.Bindings;
 import net.sf.intelliplugin.calc.math.Derive;
 import net.sf.intelliplugin.calc.math.Eval;
+import net.sf.intelliplugin.calc.metrics.EvaluationMetrics;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.HashMap;
-import java.util.Map;
+import java.math.BigDecimal;
 
 /**
  * Calculator implementation using expression evaluation.
@@ -39,6 +41,17 @@ import java.util.Map;
  * @since 2.0
  */
 public class ExpressionCalculator extends AbstractCalculator {
+
+    /**
+     * The metrics of all calculators, shown by the stats() command. Shared since the calculator engine is shared.
+     */
+    private static final EvaluationMetrics METRICS = new EvaluationMetrics();
+
+    /**
+     * Results with more digits before or after the decimal point are shown in scientific notation.
+     */
+    private static final int MAXIMUM_PLAIN_DIGITS = 100;
+
     private JPanel contentPane;
     private JTextField tfInput;
     private JTextArea taOutput;
@@ -49,7 +62,7 @@ public class ExpressionCalculator extends AbstractCalculator {
 
     private final Eval eval;
     private final Derive derive;
-    private final Map<String, String> values;
+    private final Bindings values;
 
     /**
      * @param pluginGui the parent gui
@@ -59,7 +72,11 @@ public class ExpressionCalculator extends AbstractCalculator {
 
         eval = new Eval();
         derive = new Derive();
-        values = new HashMap<>();
+        values = new Bindings(eval);
+
+        eval.setMetricsListener(METRICS);
+        derive.setMetricsListener(METRICS);
+        CalcEngine.getInstance().setMetricsListener(METRICS);
 
         taOutput.setBackground(JBColor.WHITE);
 
@@ -108,7 +125,7 @@ public class ExpressionCalculator extends AbstractCalculator {
 
             append("> " + tmp);
 
-            // check if is diff, set or clear() command.
+            // check if is diff, set, clear() or stats() command.
             if ((ind1 = tmp.indexOf("diff(")) != -1) {
                 temp = derive.diff(tmp.substring(ind1 + 5, tmp.lastIndexOf(")")))[0];
 
@@ -118,7 +135,7 @@ public class ExpressionCalculator extends AbstractCalculator {
                 try {
                     ind2 = tmp.lastIndexOf(")");
                     temp = tmp.substring(ind1 + 4, ind2);
-                    values.put(temp.substring(0, temp.indexOf("=")), temp.substring(temp.indexOf("=") + 1));
+                    values.set(temp.substring(0, temp.indexOf("=")), temp.substring(temp.indexOf("=") + 1));
                     append("Value set, " + getValues());
                 } catch (Exception ex) {
                     append("Syntax error, " + tmp);
@@ -133,26 +150,53 @@ public class ExpressionCalculator extends AbstractCalculator {
                 values.remove(temp);
                 append("Value cleared, " + getValues());
                 return;
+            } else if ((ind1 = tmp.indexOf("stats(")) != -1) {
+                if (tmp.substring(ind1 + 6, tmp.lastIndexOf(")")).equals("reset")) {
+                    METRICS.reset();
+                    append("Statistics reset");
+                } else {
+                    append(METRICS + "\ncache: " + eval.getCacheStatistics());
+                }
+                return;
             } else if (tmp.contains("memory")) {
                 append(getValues());
                 return;
             }
 
             // normal, evaluate.
-            append(String.valueOf(eval.eval(tmp, values)));
+            append(format(eval.eval(tmp, values)));
         } catch (Exception ex) {
             ex.printStackTrace(System.err);
             append(ex.getMessage());
         }
     }
 
+    /**
+     * Formats a result without trailing zeros, in plain notation unless that would take more than
+     * {@link #MAXIMUM_PLAIN_DIGITS} digits: 1e3 is shown as 1000 and not as 1E+3.
+     *
+     * @param value the result of an evaluation, null if it is NaN
+     * @return the formatted result
+     */
+    private static String format(BigDecimal value) {
+        if (value == null) {
+            return "NaN";
+        }
+        BigDecimal stripped = value.stripTrailingZeros();
+        int integerDigits = stripped.precision() - stripped.scale();
+        if (Math.abs(integerDigits) > MAXIMUM_PLAIN_DIGITS || stripped.scale() > MAXIMUM_PLAIN_DIGITS) {
+            return stripped.toString();
+        }
+        return stripped.toPlainString();
+    }
+
     /**
      * @return a formatted string of all stored values
      */
     private String getValues() {
         StringBuilder sb = new StringBuilder();
         boolean first = true;
-        for (String key : values.keySet()) {
+        for (String key : values.getNames()) {
             if (!first) {
                 sb.append(";");
             }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+plugins {
+    `java-library`
+    id("me.champeau.gradle.jmh") version "0.5.0"
+}
+
+version = 2.2
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    compileOnly("org.jetbrains:annotations:19.0.0")
+    testImplementation("org.junit.jupiter:junit-jupiter:5.6.2")
+}
+
+tasks {
+    test {
+        useJUnitPlatform {
+            excludeTags("stress")
+        }
+    }
+
+    // ./gradlew :IntelliCalcCore:stressTest runs the slow tests tagged stress, which guard the scaling of the engine
+    register<Test>("stressTest") {
+        description = "Runs the stress tests."
+        group = "verification"
+        testClassesDirs = sourceSets["test"].output.classesDirs
+        classpath = sourceSets["test"].runtimeClasspath
+        maxHeapSize = "2g"
+        useJUnitPlatform {
+            includeTags("stress")
+        }
+    }
+}
+
+// ./gradlew :IntelliCalcCore:jmh runs the benchmarks of src/jmh, writing the results to build/reports/jmh
+jmh {
+    jmhVersion = "1.23"
+    // reports gc.alloc.rate.norm, the bytes allocated per operation
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    resultsFile = project.file("$buildDir/reports/jmh/results.json")
+}
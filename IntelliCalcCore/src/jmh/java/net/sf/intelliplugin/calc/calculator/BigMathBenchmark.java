@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link BigMath} functions at a growing number of digits.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BigMathBenchmark {
+
+    /**
+     * The number of significant digits of the results.
+     */
+    @Param({"20", "50", "500", "5000"})
+    public int digits;
+
+    /**
+     * The number factorials are computed of, which is ten times the number of digits.
+     */
+    private int factorial;
+
+    /**
+     * Factorials are cached, the invocations cycle through more arguments than the cache holds.
+     */
+    private int offset;
+
+    private MathContext context;
+    private BigDecimal argument;
+
+    @Setup
+    public void setUp() {
+        context = new MathContext(digits, RoundingMode.HALF_EVEN);
+        argument = BigMath.ONE.divide(BigDecimal.valueOf(3), context).add(BigMath.TWO);
+        factorial = 10 * digits;
+    }
+
+    @Benchmark
+    public BigDecimal sqrt() {
+        return BigMath.sqrt(argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal cubeRoot() {
+        return BigMath.root(argument, 3, context);
+    }
+
+    @Benchmark
+    public BigDecimal exp() {
+        return BigMath.exp(argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal log() {
+        return BigMath.log(argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal sin() {
+        return BigMath.sin(argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal atan() {
+        return BigMath.atan(argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal pow() {
+        return BigMath.pow(argument, argument, context);
+    }
+
+    @Benchmark
+    public BigDecimal pi() {
+        return BigMath.pi(context);
+    }
+
+    @Benchmark
+    public BigDecimal fac() {
+        offset = (offset + 1) % 128;
+        return BigMath.fac(BigDecimal.valueOf(factorial + offset));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the batch evaluation of a compiled expression over a million rows of doubles, and over a smaller number
+ * of rows of BigDecimals, on a pool of 1, 2, 4 and 8 threads. The time should go down with the number of threads,
+ * up to the number of cores. The sequential evaluation on the calling thread, which does not depend on the pool, is
+ * the reference to compute the speedup with.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchBenchmark {
+
+    private static final int ROWS = 1 << 20;
+    private static final int DECIMAL_ROWS = 1 << 16;
+    private static final String EXPRESSION = "sqrt(x^2+y^2)*sin(x)-y/(1+x^2)";
+
+    /**
+     * The number of threads of the pool.
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private CompiledExpression compiled;
+    private Map<String, double[]> columns;
+    private Map<String, BigDecimal[]> decimalColumns;
+    private double[] result;
+    private BigDecimal[] decimalResult;
+
+    @Setup
+    public void setUp() throws MathException {
+        pool = new ForkJoinPool(threads);
+        compiled = new Eval().compile(EXPRESSION);
+
+        Random random = new Random(42);
+        double[] x = new double[ROWS];
+        double[] y = new double[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            x[i] = random.nextDouble() * 10;
+            y[i] = random.nextDouble() * 10;
+        }
+        columns = new HashMap<>();
+        columns.put("x", x);
+        columns.put("y", y);
+        result = new double[ROWS];
+
+        BigDecimal[] decimalX = new BigDecimal[DECIMAL_ROWS];
+        BigDecimal[] decimalY = new BigDecimal[DECIMAL_ROWS];
+        for (int i = 0; i < DECIMAL_ROWS; i++) {
+            decimalX[i] = BigDecimal.valueOf(x[i]);
+            decimalY[i] = BigDecimal.valueOf(y[i]);
+        }
+        decimalColumns = new HashMap<>();
+        decimalColumns.put("x", decimalX);
+        decimalColumns.put("y", decimalY);
+        decimalResult = new BigDecimal[DECIMAL_ROWS];
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] sequentialDoubles() throws MathException {
+        compiled.evaluateBatch(columns, result);
+        return result;
+    }
+
+    @Benchmark
+    public BigDecimal[] sequentialDecimals() throws MathException {
+        compiled.evaluateDecimalBatch(decimalColumns, decimalResult);
+        return decimalResult;
+    }
+
+    @Benchmark
+    public double[] doubles() throws MathException {
+        compiled.evaluateBatch(columns, result, pool);
+        return result;
+    }
+
+    @Benchmark
+    public BigDecimal[] decimals() throws MathException {
+        compiled.evaluateDecimalBatch(decimalColumns, decimalResult, pool);
+        return decimalResult;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a {@link CompiledExpression} against the interpreter of {@link Eval} on the same expression and values.
+ * The interpreter finds the parse tree in its cache, so both only pay for the evaluation.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CompileBenchmark {
+
+    /**
+     * The number of terms of the expression.
+     */
+    @Param({"10", "100", "1000"})
+    public int terms;
+
+    private String expression;
+    private Map<String, String> values;
+    private Bindings bindings;
+    private CompiledExpression compiled;
+    private BigDecimal[] slots;
+    private Eval eval;
+
+    @Setup
+    public void setUp() throws MathException {
+        eval = new Eval();
+
+        StringBuilder expression = new StringBuilder();
+        values = new HashMap<>();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append(i % 2 == 0 ? '+' : '-');
+            }
+            expression.append("x").append(i).append("*y").append(i % 10).append("/(").append(i + 1).append("+x")
+                      .append(i).append(")");
+            values.put("x" + i, String.valueOf(i + 0.25));
+        }
+        for (int i = 0; i < 10; i++) {
+            values.put("y" + i, String.valueOf(i + 0.5));
+        }
+        this.expression = expression.toString();
+
+        bindings = new Bindings(eval);
+        values.forEach(bindings::set);
+        compiled = eval.compile(this.expression);
+        slots = new BigDecimal[compiled.getVariables().size()];
+        for (String name : compiled.getVariables()) {
+            slots[compiled.getSlot(name)] = new BigDecimal(values.get(name));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal interpretedMap() throws MathException {
+        return eval.eval(expression, values);
+    }
+
+    @Benchmark
+    public BigDecimal compiledMap() throws MathException {
+        return compiled.evaluate(values);
+    }
+
+    @Benchmark
+    public BigDecimal interpretedBindings() throws MathException {
+        return eval.eval(expression, bindings);
+    }
+
+    @Benchmark
+    public BigDecimal compiledBindings() throws MathException {
+        return compiled.evaluate(bindings);
+    }
+
+    @Benchmark
+    public BigDecimal compiledSlots() throws MathException {
+        return compiled.evaluate(slots);
+    }
+}
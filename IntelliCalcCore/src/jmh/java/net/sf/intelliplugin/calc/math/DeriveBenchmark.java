@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Derive#diff(String)} on polynomials and on sums of trigonometric functions of a growing number
+ * of terms, on products of a growing number of factors and on nested functions of a growing depth. The products and
+ * the nested functions exercise the product and chain rules, whose derivatives grow faster than the expression.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DeriveBenchmark {
+
+    /**
+     * The number of terms of the expression.
+     */
+    @Param({"2", "8", "32"})
+    public int terms;
+
+    private String polynomial;
+    private String trigonometric;
+    private String product;
+    private String chain;
+    private Derive derive;
+
+    @Setup
+    public void setUp() {
+        derive = new Derive();
+
+        StringBuilder polynomial = new StringBuilder();
+        StringBuilder trigonometric = new StringBuilder();
+        StringBuilder product = new StringBuilder();
+        StringBuilder chain = new StringBuilder("x*y");
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                polynomial.append('+');
+                trigonometric.append('+');
+                product.append('*');
+            }
+            polynomial.append(i + 2).append("*x^").append(i + 1).append("*y");
+            trigonometric.append("sin(").append(i + 1).append("*x)+cos(x*y+").append(i).append(")");
+            product.append("sin(").append(i + 1).append("*x)*cos(x+").append(i).append(")");
+            chain.insert(0, i % 2 == 0 ? "sin(" : "cos(").append(')');
+        }
+        this.polynomial = polynomial.toString();
+        this.trigonometric = trigonometric.toString();
+        this.product = product.toString();
+        this.chain = chain.toString();
+    }
+
+    @Benchmark
+    public String[] polynomial() throws SyntaxException {
+        return derive.diff(polynomial);
+    }
+
+    @Benchmark
+    public String[] trigonometric() throws SyntaxException {
+        return derive.diff(trigonometric);
+    }
+
+    @Benchmark
+    public String[] product() throws SyntaxException {
+        return derive.diff(product);
+    }
+
+    @Benchmark
+    public String[] chain() throws SyntaxException {
+        return derive.diff(chain);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link EvaluationMode#DOUBLE} evaluation of an expression of functions and powers against its
+ * {@link EvaluationMode#DECIMAL} evaluation, on the same values.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DoubleModeBenchmark {
+
+    /**
+     * The number of terms of the expression.
+     */
+    @Param({"1", "10", "100"})
+    public int terms;
+
+    private CompiledExpression decimal;
+    private CompiledExpression doubles;
+    private BigDecimal[] decimalValues;
+    private double[] doubleValues;
+
+    @Setup
+    public void setUp() throws MathException {
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append(i % 2 == 0 ? '+' : '-');
+            }
+            expression.append("sin(x*").append(i + 1).append(")^2+cos(y)*ln(x+").append(i + 1).append(")-ceil(y^")
+                      .append(i % 3 + 1).append(")");
+        }
+
+        Eval eval = new Eval();
+        decimal = eval.compile(expression.toString(), EvaluationMode.DECIMAL);
+        doubles = eval.compile(expression.toString(), EvaluationMode.DOUBLE);
+        decimalValues = new BigDecimal[]{new BigDecimal("1.25"), new BigDecimal("0.75")};
+        doubleValues = new double[]{1.25, 0.75};
+    }
+
+    @Benchmark
+    public BigDecimal decimal() throws MathException {
+        return decimal.evaluate(decimalValues);
+    }
+
+    @Benchmark
+    public double doubles() throws MathException {
+        return doubles.evaluateDouble(doubleValues);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link Eval#eval(String, String)} with and without the parse tree cache, for expressions of a growing
+ * number of terms, and for expressions using many variables.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EvalBenchmark {
+
+    /**
+     * The number of terms of the expression.
+     */
+    @Param({"1", "10", "100", "1000"})
+    public int terms;
+
+    private String expression;
+    private String variableExpression;
+    private Map<String, String> values;
+    private Bindings bindings;
+    private CompiledExpression compiled;
+    private BigDecimal[] slots;
+
+    private Eval cold;
+    private Eval warm;
+
+    @Setup
+    public void setUp() throws MathException {
+        // every evaluation of the cold evaluator parses the expression again
+        cold = new Eval(0, 0);
+        warm = new Eval();
+
+        StringBuilder constant = new StringBuilder();
+        StringBuilder variable = new StringBuilder();
+        values = new HashMap<>();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                constant.append(i % 2 == 0 ? '+' : '-');
+                variable.append(i % 2 == 0 ? '+' : '-');
+            }
+            constant.append(i + 1).append(".5*sin(").append(i).append("/7)^2");
+            variable.append("x").append(i).append("*y").append(i % 10);
+            values.put("x" + i, String.valueOf(i + 0.25));
+        }
+        for (int i = 0; i < 10; i++) {
+            values.put("y" + i, String.valueOf(i + 0.5));
+        }
+        expression = constant.toString();
+        variableExpression = variable.toString();
+
+        bindings = new Bindings(warm);
+        values.forEach(bindings::set);
+        compiled = warm.compile(variableExpression);
+        slots = new BigDecimal[compiled.getVariables().size()];
+        for (String name : compiled.getVariables()) {
+            slots[compiled.getSlot(name)] = new BigDecimal(values.get(name));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal evalCold() throws MathException {
+        return cold.eval(expression, "");
+    }
+
+    @Benchmark
+    public BigDecimal evalWarm() throws MathException {
+        return warm.eval(expression, "");
+    }
+
+    @Benchmark
+    public BigDecimal variablesMap() throws MathException {
+        return warm.eval(variableExpression, values);
+    }
+
+    @Benchmark
+    public BigDecimal variablesBindings() throws MathException {
+        return warm.eval(variableExpression, bindings);
+    }
+
+    @Benchmark
+    public BigDecimal variablesSlots() throws MathException {
+        return compiled.evaluate(slots);
+    }
+}
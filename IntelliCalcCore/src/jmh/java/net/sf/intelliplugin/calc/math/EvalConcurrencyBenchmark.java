@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the throughput of a single {@link Eval} shared by 1, 2, 4 and 8 threads. Every thread cycles through the
+ * same expressions, so the threads hit the same entries of the parse tree cache. The threads also share a single
+ * {@link CompiledExpression}, each evaluating it with values of its own. The throughput should scale with the number
+ * of threads.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EvalConcurrencyBenchmark {
+
+    private static final int EXPRESSIONS = 64;
+
+    private final String[] expressions = new String[EXPRESSIONS];
+    private Eval eval;
+    private CompiledExpression compiled;
+
+    /**
+     * The position of a thread in the expressions, and the values it evaluates the compiled expression with.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int next;
+        private final BigDecimal[] values = new BigDecimal[2];
+
+        int next() {
+            next = (next + 1) % EXPRESSIONS;
+            return next;
+        }
+
+        BigDecimal[] values() {
+            int i = next();
+            values[0] = BigDecimal.valueOf(i + 1, 1);
+            values[1] = BigDecimal.valueOf(i + 2);
+            return values;
+        }
+    }
+
+    @Setup
+    public void setUp() throws MathException {
+        eval = new Eval();
+        for (int i = 0; i < EXPRESSIONS; i++) {
+            expressions[i] = (i + 1) + ".5*sin(" + i + "/7)^2+sqrt(" + (i + 2) + ")-" + i + "%3";
+        }
+        compiled = eval.compile("x*sin(x/7)^2+sqrt(y)-y%3");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal oneThread(Cursor cursor) throws MathException {
+        return eval.eval(expressions[cursor.next()], "");
+    }
+
+    @Benchmark
+    @Threads(2)
+    public BigDecimal twoThreads(Cursor cursor) throws MathException {
+        return eval.eval(expressions[cursor.next()], "");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal fourThreads(Cursor cursor) throws MathException {
+        return eval.eval(expressions[cursor.next()], "");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BigDecimal eightThreads(Cursor cursor) throws MathException {
+        return eval.eval(expressions[cursor.next()], "");
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BigDecimal compiledOneThread(Cursor cursor) throws MathException {
+        return compiled.evaluate(cursor.values());
+    }
+
+    @Benchmark
+    @Threads(2)
+    public BigDecimal compiledTwoThreads(Cursor cursor) throws MathException {
+        return compiled.evaluate(cursor.values());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BigDecimal compiledFourThreads(Cursor cursor) throws MathException {
+        return compiled.evaluate(cursor.values());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BigDecimal compiledEightThreads(Cursor cursor) throws MathException {
+        return compiled.evaluate(cursor.values());
+    }
+}
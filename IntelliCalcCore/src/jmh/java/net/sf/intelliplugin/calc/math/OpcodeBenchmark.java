@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the dispatch on the operators of an expression cycling through every operator. The operations of the
+ * nodes are looked up by {@link Opcode} and, as before opcodes, by operator name. The expression is also evaluated by
+ * the interpreter, which dispatches on the opcode of every node, and as a compiled expression, which resolved every
+ * operator once.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpcodeBenchmark {
+
+    private static final String[] OPERATORS = {
+        "x^2", "sqrt(x)", "sin(x)", "cos(x)", "tan(x)", "asin(x)", "acos(x)", "atan(x)", "cotan(x)", "acotan(x)",
+        "ln(x)", "exp(x)", "sinh(x)", "cosh(x)", "tanh(x)", "abs(x)", "fpart(x)", "ceil(x)", "floor(x)", "round(x)",
+        "fac(x*8)", "sfac(x*8)", "deg2rad(x)", "rad2deg(x)", "deg2grad(x)", "grad2deg(x)", "rad2grad(x)",
+        "grad2rad(x)", "x%0.5", "x/3", "(x>0.5)", "(x<0.5)", "(x>=1)", "(x<=1)", "(x==1)", "(x!=1)",
+        "(x>0&&x<1)", "(x<0||x<1)", "!(x>1)"
+    };
+
+    /**
+     * The number of terms of the expression.
+     */
+    @Param({"10", "100", "1000"})
+    public int terms;
+
+    private String expression;
+    private Opcode[] opcodes;
+    private String[] symbols;
+    private Map<Opcode, Object> opcodeOperations;
+    private Map<String, Object> symbolOperations;
+    private Eval eval;
+    private Bindings bindings;
+    private CompiledExpression compiled;
+    private BigDecimal[] slots;
+
+    @Setup
+    public void setUp() throws MathException {
+        eval = new Eval();
+
+        StringBuilder expression = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                expression.append('+');
+            }
+            expression.append(OPERATORS[i % OPERATORS.length]);
+        }
+        this.expression = expression.toString();
+
+        FlatTree tree = FlatTree.of(new Parser(eval, this.expression).parse());
+        List<Opcode> operators = new ArrayList<>();
+        for (int i = 0; i < tree.size(); i++) {
+            if (tree.code(i) >= 0) {
+                operators.add(tree.opcode(i));
+            }
+        }
+        opcodes = operators.toArray(new Opcode[0]);
+        symbols = new String[opcodes.length];
+        for (int i = 0; i < opcodes.length; i++) {
+            // a copy, compared character by character like a name read from an expression
+            symbols[i] = new String(opcodes[i].symbol());
+        }
+
+        opcodeOperations = new EnumMap<>(Opcode.class);
+        symbolOperations = new HashMap<>();
+        for (Opcode opcode : Opcode.values()) {
+            Object operation = Compiler.binaryOperation(opcode);
+            if (operation == null) {
+                operation = Compiler.unaryOperation(opcode);
+            }
+            opcodeOperations.put(opcode, operation);
+            symbolOperations.put(opcode.symbol(), operation);
+        }
+
+        bindings = new Bindings(eval);
+        bindings.set("x", "0.625");
+        compiled = eval.compile(this.expression);
+        slots = new BigDecimal[]{new BigDecimal("0.625")};
+    }
+
+    @Benchmark
+    public void dispatchOpcode(Blackhole blackhole) {
+        for (Opcode opcode : opcodes) {
+            blackhole.consume(opcodeOperations.get(opcode));
+        }
+    }
+
+    @Benchmark
+    public void dispatchSymbol(Blackhole blackhole) {
+        for (String symbol : symbols) {
+            blackhole.consume(symbolOperations.get(symbol));
+        }
+    }
+
+    @Benchmark
+    public BigDecimal interpreted() throws MathException {
+        return eval.eval(expression, bindings);
+    }
+
+    @Benchmark
+    public BigDecimal compiled() throws MathException {
+        return compiled.evaluate(slots);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks recognizing the operators of an expression with the {@link OperatorTrie}, against looking up every
+ * substring of up to 8 characters in the operator table, and tokenizing the expression with the {@link Lexer}.
+ * <p/>
+ * The gc profiler reports the bytes allocated per invocation as <code>gc.alloc.rate.norm</code>. Divided by
+ * {@link #length} this is the allocation per scanned character, which is 0 for {@link #matchOperators}.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OperatorTrieBenchmark {
+
+    private static final int MAXIMUM_OPERATOR_LENGTH = 8;
+
+    /**
+     * The number of characters of the expression.
+     */
+    @Param({"1024", "102400"})
+    public int length;
+
+    private String expression;
+    private Eval eval;
+
+    @Setup
+    public void setUp() {
+        eval = new Eval();
+
+        StringBuilder expression = new StringBuilder(length + 32);
+        for (int i = 0; expression.length() < length; i++) {
+            if (i > 0) {
+                expression.append(i % 2 == 0 ? '+' : '-');
+            }
+            expression.append(i % 97).append(".5*sin(x").append(i % 10).append(")^2");
+        }
+        this.expression = expression.toString();
+    }
+
+    @Benchmark
+    public void matchOperators(Blackhole blackhole) {
+        OperatorTrie operators = eval.operators;
+        for (int i = 0; i < expression.length(); i++) {
+            blackhole.consume(operators.match(expression, i));
+        }
+    }
+
+    @Benchmark
+    public void matchSubstrings(Blackhole blackhole) {
+        for (int i = 0; i < expression.length(); i++) {
+            Operator operator = null;
+            for (int end = Math.min(i + MAXIMUM_OPERATOR_LENGTH, expression.length()); end > i; end--) {
+                operator = eval.ops.get(expression.substring(i, end));
+                if (operator != null) {
+                    break;
+                }
+            }
+            blackhole.consume(operator);
+        }
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) throws SyntaxException {
+        Lexer lexer = new Lexer(eval, expression);
+        Token token;
+        while ((token = lexer.next()).getType() != Token.Type.END) {
+            blackhole.consume(token);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing expressions of 1 KB, 100 KB and 1 MB, a flat sum of terms and a sum nested in parenthesis. The
+ * time per character should not grow with the length of the expression, neither with its depth.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+    /**
+     * The number of characters of the expression.
+     */
+    @Param({"1024", "102400", "1048576"})
+    public int length;
+
+    private String expression;
+    private String nested;
+    private Eval eval;
+
+    @Setup
+    public void setUp() {
+        eval = new Eval();
+
+        StringBuilder expression = new StringBuilder(length + 32);
+        for (int i = 0; expression.length() < length; i++) {
+            if (i > 0) {
+                expression.append(i % 2 == 0 ? '+' : '-');
+            }
+            expression.append(i % 97).append(".5*sin(x").append(i % 10).append(")^2");
+        }
+        this.expression = expression.toString();
+
+        StringBuilder nested = new StringBuilder(length + 32);
+        int depth = 0;
+        for (int i = 0; nested.length() + depth < length; i++, depth++) {
+            nested.append("(x").append(i % 10).append('+');
+        }
+        nested.append('1');
+        for (int i = 0; i < depth; i++) {
+            nested.append(')');
+        }
+        this.nested = nested.toString();
+    }
+
+    @Benchmark
+    public Node parse() throws MathException {
+        return new Parser(eval, expression).parse();
+    }
+
+    @Benchmark
+    public Node parseNested() throws MathException {
+        return new Parser(eval, nested).parse();
+    }
+}
@@ -0,0 +1,1746 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Math helper class for performing math functions on {@link java.math.BigDecimal}.
+ *
+ * @author Bart Cremers
+ * @since 2.0
+ */
+public class BigMath {
+
+    /**
+     * Eulers number, to the precision of a double. See {@link #e(MathContext)} for more digits.
+     */
+    public static final BigDecimal EULER = BigDecimal.valueOf(Math.E);
+
+    /**
+     * Pi, to the precision of a double. See {@link #pi(MathContext)} for more digits.
+     */
+    public static final BigDecimal PI = BigDecimal.valueOf(Math.PI);
+
+    /**
+     * Not-a-Number
+     */
+    public static final BigDecimal NaN = null; // TODO: BigDecimal.valueOf(Double.NaN);
+
+    /**
+     * Positive infinity
+     */
+    public static final BigDecimal POSITIVE_INFINITY = null; // TODO:BigDecimal.valueOf(Double.POSITIVE_INFINITY);
+
+    /**
+     * Value representing boolean <code>false</code>.
+     */
+    public static final BigDecimal FALSE = BigDecimal.ZERO;
+
+    /**
+     * Value representing boolean <code>true</code>.
+     */
+    public static final BigDecimal TRUE = BigDecimal.ONE;
+
+    /**
+     * The value -2 with a scale of 0.
+     */
+    public static final BigDecimal MINUS_TWO = BigDecimal.valueOf(-2);
+
+    /**
+     * The value -1 with a scale of 0.
+     */
+    public static final BigDecimal MINUS_ONE = BigDecimal.valueOf(-1);
+
+    /**
+     * The value 0 with a scale of 0.
+     */
+    public static final BigDecimal ZERO = BigDecimal.ZERO;
+
+    /**
+     * The value 0.5 with a scale of 1.
+     */
+    public static final BigDecimal ONE_HALF = BigDecimal.valueOf(0.5);
+
+    /**
+     * The value 1 with a scale of 0.
+     */
+    public static final BigDecimal ONE = BigDecimal.ONE;
+
+    /**
+     * The value 2 with a scale of 0.
+     */
+    public static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    /**
+     * The value 8 with a scale of 0.
+     */
+    public static final BigDecimal EIGHT = BigDecimal.valueOf(8);
+
+    /**
+     * The value 10 with a scale of 0.
+     */
+    public static final BigDecimal TEN = BigDecimal.TEN;
+
+    /**
+     * The value 16 with a scale of 0.
+     */
+    public static final BigDecimal SIXTEEN = BigDecimal.valueOf(16);
+
+    /**
+     * The value 100 with a scale of 0.
+     */
+    public static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * The value 180 with a scale of 0.
+     */
+    public static final BigDecimal ONE_EIGHTY = BigDecimal.valueOf(180);
+
+    /**
+     * The value 200 with a scale of 0.
+     */
+    public static final BigDecimal TWO_HUNDRED = BigDecimal.valueOf(200);
+
+    /**
+     * A value just below pi/4, arguments below it need no reduction by a multiple of pi/2.
+     */
+    private static final BigDecimal QUARTER_PI_LOWER_BOUND = new BigDecimal("0.785");
+
+    private static final int SCALE = 50;
+    private static final MathContext MC = new MathContext(SCALE, RoundingMode.HALF_EVEN);
+
+    private static final Constant CACHED_PI = new Constant(BigMath::chudnovsky);
+    private static final Constant CACHED_E = new Constant(BigMath::euler);
+    private static final Constant CACHED_LN2 = new Constant(BigMath::ln2);
+    private static final Constant CACHED_LN10 = new Constant(BigMath::ln10);
+
+    /**
+     * Extra digits carried by the functions taking a {@link MathContext}, absorbing the rounding errors of their
+     * intermediate results.
+     */
+    private static final int GUARD_DIGITS = 10;
+
+    /**
+     * The number of bits needed for a decimal digit.
+     */
+    private static final double BITS_PER_DIGIT = Math.log(10) / Math.log(2);
+
+    /**
+     * The argument of exp is halved until it is below 2 to the power of minus this number.
+     */
+    private static final int REDUCED_EXP_BITS = 8;
+
+    /**
+     * Up to this number of bits, exp sums its series directly instead of by binary splitting.
+     */
+    private static final int MAXIMUM_TAYLOR_EXP_BITS = 3000;
+
+    /**
+     * Arguments of exp beyond this value are first reduced by a multiple of ln(10), which keeps the intermediate
+     * fixed point numbers small.
+     */
+    private static final BigDecimal MAXIMUM_FIXED_POINT_EXP_ARGUMENT = BigDecimal.valueOf(100);
+
+    /**
+     * The exponent of a BigDecimal overflows for exp of arguments beyond this value.
+     */
+    private static final BigDecimal MAXIMUM_EXP_ARGUMENT = BigDecimal.valueOf(1000000000);
+
+    /**
+     * The maximum number of digits of an integer power computed exactly.
+     */
+    private static final int MAXIMUM_EXACT_POWER_DIGITS = 1000;
+
+    /**
+     * The maximum degree of the root taken for a power with a fractional exponent, larger ones use exp and ln.
+     */
+    private static final int MAXIMUM_ROOT_DEGREE = 100;
+
+    /**
+     * The maximum number of fraction digits of an exponent taken as a fraction, enough for 1/64 = 0.015625.
+     */
+    private static final int MAXIMUM_ROOT_SCALE = 6;
+
+    /**
+     * Returns Euler's number <i>e</i> raised to the power of a value.
+     *
+     * @param a the exponent to raise <i>e</i> to
+     * @return the value <i>e</i><sup><code>a</code></sup>, where <i>e</i> is the base of the natural logarithms.
+     */
+    public static BigDecimal exp(BigDecimal a) {
+        return exp(a, MC);
+    }
+
+    /**
+     * Returns Euler's number <i>e</i> raised to the power of a value.
+     * <p/>
+     * The argument is halved until it is below 2<sup>-8</sup>, after which its binary fraction is split in chunks of
+     * 8, 16, 32, ... bits. The exponential of every chunk is a series of small rationals summed by binary splitting,
+     * the product of the chunks is squared once for every halving. All of this is done on binary fixed point numbers,
+     * only the result is converted to a decimal.
+     *
+     * @param a       the exponent to raise <i>e</i> to
+     * @param context the precision of the result
+     * @return the value <i>e</i><sup><code>a</code></sup>, where <i>e</i> is the base of the natural logarithms.
+     * @throws ArithmeticException if the result overflows, or if the context has an unlimited precision
+     */
+    public static BigDecimal exp(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ONE;
+        }
+        MathContext mc = working(context, GUARD_DIGITS);
+        BigDecimal x = a.abs();
+        if (x.compareTo(MAXIMUM_EXP_ARGUMENT) > 0) {
+            throw new ArithmeticException("Overflow");
+        }
+
+        BigDecimal exp;
+        if (x.compareTo(MAXIMUM_FIXED_POINT_EXP_ARGUMENT) > 0) {
+            // e^x = 10^k e^(x - k ln(10)), the digits of the integer part of x are lost in the subtraction
+            MathContext reduction = new MathContext(mc.getPrecision() + x.precision() - x.scale(),
+                                                    RoundingMode.HALF_EVEN);
+            BigDecimal ln10 = log(TEN, reduction);
+            BigDecimal k = x.divideToIntegralValue(ln10);
+            BigDecimal r = x.subtract(k.multiply(ln10), reduction).max(ZERO);
+            exp = expPositive(r, mc).scaleByPowerOfTen(k.intValueExact());
+        } else {
+            exp = expPositive(x, mc);
+        }
+        return a.signum() < 0 ? ONE.divide(exp, context) : exp.round(context);
+    }
+
+    /**
+     * @param a       a positive exponent of at most {@link #MAXIMUM_FIXED_POINT_EXP_ARGUMENT}
+     * @param context the precision of the result
+     * @return the value <i>e</i><sup><code>a</code></sup>
+     */
+    private static BigDecimal expPositive(BigDecimal a, MathContext context) {
+        // every squaring doubles the relative error, costing a bit
+        int halvings = a.toBigInteger().bitLength() + REDUCED_EXP_BITS;
+        int bits = bits(context) + halvings;
+        BigInteger fraction = fixed(a, bits - halvings);
+
+        BigInteger result = BigInteger.ONE.shiftLeft(bits);
+        if (bits <= MAXIMUM_TAYLOR_EXP_BITS) {
+            // the few terms needed are summed directly
+            BigInteger term = result;
+            for (int n = 1; term.signum() != 0; n++) {
+                term = term.multiply(fraction).shiftRight(bits).divide(BigInteger.valueOf(n));
+                result = result.add(term);
+            }
+        } else {
+            for (int low = REDUCED_EXP_BITS, high = 2 * low; low < bits; low = high, high = Math.min(2 * high, bits)) {
+                BigInteger chunk = fraction.shiftRight(bits - high).and(BigInteger.ONE.shiftLeft(high - low)
+                                                                                      .subtract(BigInteger.ONE));
+                if (chunk.signum() != 0) {
+                    result = result.multiply(expChunk(chunk, low, high, bits)).shiftRight(bits);
+                }
+            }
+        }
+
+        for (int i = 0; i < halvings; i++) {
+            result = result.multiply(result).shiftRight(bits);
+        }
+        return decimal(result, bits, context);
+    }
+
+    /**
+     * @param chunk the numerator of the fraction <code>chunk / 2^high</code>, which is below <code>2^-low</code>
+     * @param low   the number of leading zero bits of the fraction
+     * @param high  the number of bits of the fraction
+     * @param bits  the number of fraction bits of the result
+     * @return <i>e</i> raised to the power of the fraction, as a fixed point number
+     */
+    private static BigInteger expChunk(BigInteger chunk, int low, int high, int bits) {
+        // term k is below 2^-(k * low) / k!
+        int terms = 0;
+        for (double magnitude = 0; magnitude < bits + 4; ) {
+            terms++;
+            magnitude += low + Math.log(terms) / Math.log(2);
+        }
+
+        return new BinarySplitting(k -> BigInteger.ONE,
+                                   k -> BigInteger.ONE,
+                                   k -> k == 0 ? BigInteger.ONE : chunk,
+                                   k -> k == 0 ? BigInteger.ONE : BigInteger.valueOf(k).shiftLeft(high))
+                .sum(terms + 1, bits);
+    }
+
+    /**
+     * Returns the value of the first argument raised to the power of the second argument.
+     *
+     * @param a the base
+     * @param b the exponent
+     * @return the value a<sup>b</sup>
+     */
+    public static BigDecimal pow(BigDecimal a, BigDecimal b) {
+        return pow(a, b, MC);
+    }
+
+    /**
+     * Returns the value of the first argument raised to the power of the second argument. Integer powers are computed
+     * by repeated squaring, exactly if they have at most {@link #MAXIMUM_EXACT_POWER_DIGITS} digits, like a
+     * product. A power of a positive base with a decimal fraction <code>p/q</code> as exponent is the q-th root of the
+     * exact p-th power, other powers are computed as <i>e</i><sup>b ln(a)</sup>.
+     * <p/>
+     * A negative base requires an integer exponent. Its powers with any other exponent are rejected, also when the
+     * exponent is a fraction with an odd denominator, however it is written. The double arithmetic of the evaluation
+     * modes returns NaN for these powers.
+     *
+     * @param a       the base
+     * @param b       the exponent
+     * @param context the precision of the result
+     * @return the value a<sup>b</sup>
+     * @throws ArithmeticException if the power is not a real number, if it overflows or underflows the range of a
+     *                             BigDecimal, or if the context has an unlimited precision and the power has no exact
+     *                             decimal representation of a reasonable size
+     */
+    public static BigDecimal pow(BigDecimal a, BigDecimal b, MathContext context) {
+        BigDecimal exponent = b.stripTrailingZeros();
+        if (exponent.scale() <= 0) {
+            try {
+                return pow(a, exponent.intValueExact(), context);
+            } catch (ArithmeticException e) {
+                // too large for repeated squaring
+            }
+        }
+
+        if (a.signum() == 0) {
+            if (b.signum() < 0) {
+                throw new ArithmeticException("Division by zero");
+            }
+            return ZERO;
+        } else if (a.signum() > 0 && exponent.scale() > 0 && exponent.scale() <= MAXIMUM_ROOT_SCALE) {
+            // b = p/q, a fraction with a denominator dividing a power of 10
+            BigInteger p = exponent.unscaledValue();
+            BigInteger q = BigInteger.TEN.pow(exponent.scale());
+            BigInteger gcd = p.gcd(q);
+            p = p.divide(gcd);
+            q = q.divide(gcd);
+            if (q.intValue() <= MAXIMUM_ROOT_DEGREE && p.bitLength() < Integer.SIZE
+                && (long) a.precision() * p.abs().longValue() <= MAXIMUM_EXACT_POWER_DIGITS) {
+                return rationalPow(a, p.intValue(), q.intValue(), context);
+            }
+        }
+
+        if (a.signum() < 0) {
+            if (exponent.scale() > 0) {
+                throw new ArithmeticException("Negative base with a fractional exponent");
+            }
+            // an integer exponent too large for repeated squaring, its parity decides the sign
+            BigDecimal power = pow(a.negate(), exponent, context);
+            boolean odd = exponent.scale() == 0 && exponent.unscaledValue().testBit(0);
+            return odd ? power.negate() : power;
+        } else if (a.compareTo(ONE) == 0) {
+            return ONE;
+        }
+
+        // the digits of the integer part of b ln(a) are lost to the exponent of the result
+        int magnitudeExponent = exponent(a);
+        double ln = Math.log(a.movePointLeft(magnitudeExponent).doubleValue()) + magnitudeExponent * Math.log(10);
+        double decimalExponent = b.doubleValue() * ln / Math.log(10);
+        if (Math.abs(decimalExponent) >= Integer.MAX_VALUE) {
+            throw new ArithmeticException(decimalExponent > 0 ? "Power overflows" : "Power underflows");
+        }
+        double magnitude = Math.abs(b.doubleValue() * ln);
+        int extra = magnitude > 1 ? (int) Math.min(Math.ceil(Math.log10(magnitude)), GUARD_DIGITS) : 0;
+        MathContext mc = working(context, GUARD_DIGITS + extra);
+        return exp(b.multiply(log(a, mc), mc), context);
+    }
+
+    /**
+     * @param a       the base
+     * @param n       the exponent
+     * @param context the precision of the result
+     * @return the value a<sup>n</sup>, exact if n is positive and the power is not too large
+     */
+    private static BigDecimal pow(BigDecimal a, int n, MathContext context) {
+        boolean exact = (long) a.precision() * Math.abs((long) n) <= MAXIMUM_EXACT_POWER_DIGITS;
+        if (a.signum() == 0 && n < 0) {
+            throw new ArithmeticException("Division by zero");
+        } else if (exact && n >= 0) {
+            return a.pow(n);
+        } else if (context.getPrecision() == 0) {
+            if (!exact) {
+                throw new ArithmeticException("Power too large to compute exactly");
+            }
+            return ONE.divide(a.pow(-n));
+        }
+        return a.pow(n, working(context, 2)).round(context);
+    }
+
+    /**
+     * @param a       the base, greater than 0
+     * @param p       the numerator of the exponent
+     * @param q       the denominator of the exponent, without common factors with p
+     * @param context the precision of the result
+     * @return the value a<sup>p/q</sup>, the q-th root of a<sup>p</sup>
+     */
+    private static BigDecimal rationalPow(BigDecimal a, int p, int q, MathContext context) {
+        BigDecimal power = a.pow(Math.abs(p));
+        if (p > 0) {
+            return root(power, q, context);
+        } else if (context.getPrecision() == 0) {
+            return ONE.divide(root(power, q, context));
+        }
+        return ONE.divide(root(power, q, working(context, 2)), context);
+    }
+
+    /**
+     * @param a the number
+     * @return the log to base 10
+     */
+    public static BigDecimal log10(BigDecimal a) {
+        return log(a, TEN, MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the base 10 antilog
+     */
+    public static BigDecimal antilog10(BigDecimal a) {
+        return pow(TEN, a);
+    }
+
+    /**
+     * @param a the number
+     * @return the log to base e
+     */
+    public static BigDecimal log(BigDecimal a) {
+        return log(a, MC);
+    }
+
+    /**
+     * Computes the natural logarithm with the arithmetic-geometric mean. The number is scaled by a power of 2 to a
+     * large s, for which <code>ln(s) = pi / (2 AGM(1, 4/s))</code> to within the precision, after which the power
+     * of 2 is subtracted again.
+     *
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the log to base e
+     * @throws ArithmeticException if a &lt;= 0, or if the context has an unlimited precision
+     */
+    public static BigDecimal log(BigDecimal a, MathContext context) {
+        if (a.signum() <= 0) {
+            throw new ArithmeticException("Logarithm of a number <= 0");
+        } else if (a.compareTo(ONE) == 0) {
+            return ZERO;
+        } else if (a.compareTo(TWO) == 0) {
+            return constant(CACHED_LN2, context);
+        } else if (a.compareTo(TEN) == 0) {
+            return constant(CACHED_LN10, context);
+        }
+
+        // the logarithm of a number close to 1 is small, the digits it shares with 1 cancel
+        MathContext mc = working(context, GUARD_DIGITS + Math.max(0, -exponent(a.subtract(ONE))));
+        // as do the bits of ln(s) exceeding those of the result, and the bits of the small AGM
+        int bits = bits(mc);
+        bits += 2 * (32 - Integer.numberOfLeadingZeros(bits));
+
+        int m = Math.toIntExact(bits / 2 + 8 - (long) Math.floor((a.precision() - a.scale()) * BITS_PER_DIGIT));
+        BigDecimal s = m >= 0
+                       ? a.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(m)))
+                       : a.divide(new BigDecimal(BigInteger.ONE.shiftLeft(-m)), mc);
+
+        // 4/s is below 2^-(bits/2), the fixed point numbers of the AGM need that many more bits
+        int precision = bits + bits / 2 + 8;
+        BigInteger agm = agm(BigInteger.ONE.shiftLeft(precision),
+                             fixed(BigDecimal.valueOf(4).divide(s, mc), precision),
+                             precision);
+        BigInteger logS = CACHED_PI.fixed(bits).shiftLeft(precision).divide(agm.shiftLeft(1));
+        return decimal(logS.subtract(CACHED_LN2.fixed(bits).multiply(BigInteger.valueOf(m))), bits, context);
+    }
+
+    /**
+     * @param a       the number
+     * @param b       the base
+     * @param context the precision of the result
+     * @return the log to base b
+     * @throws ArithmeticException if a or b &lt;= 0, b is 1, or if the context has an unlimited precision
+     */
+    public static BigDecimal log(BigDecimal a, BigDecimal b, MathContext context) {
+        MathContext mc = working(context, GUARD_DIGITS);
+        return log(a, mc).divide(log(b, mc), context);
+    }
+
+    /**
+     * @param a the number
+     * @return the base e antilog
+     */
+    public static BigDecimal antilog(BigDecimal a) {
+        return exp(a);
+    }
+
+    /**
+     * @param a the number
+     * @return the log to base 2
+     */
+    public static BigDecimal log2(BigDecimal a) {
+        return log(a, TWO, MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the base 2 antilog
+     */
+    public static BigDecimal antilog2(BigDecimal a) {
+        return pow(TWO, a);
+    }
+
+    /**
+     * @param a the number
+     * @param b the base
+     * @return the log to base b.
+     */
+    public static BigDecimal log10(BigDecimal a, BigDecimal b) {
+        return log(a).divide(log(b), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the square
+     */
+    public static BigDecimal square(BigDecimal a) {
+        return square(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the square
+     */
+    public static BigDecimal square(BigDecimal a, MathContext context) {
+        return a.multiply(a, context);
+    }
+
+    /**
+     * Calculates the factorial of a. Note that rounding may make this an approximation.
+     *
+     * @param a the number
+     * @return the factorial of a
+     * @throws IllegalArgumentException if a is not a positive integer value
+     * @throws ArithmeticException      if a is too large
+     */
+    public static BigDecimal factorial(BigDecimal a) {
+        if (isNegative(a) || !isInteger(a)) {
+            throw new IllegalArgumentException("a must be a positive integer");
+        }
+        return round(Factorials.factorial(factorialArgument(a)));
+    }
+
+    /**
+     * Calculates the log to base e of the factorial of a. Note that rounding may make this an approximation.
+     *
+     * @param a the number
+     * @return the log to base e of the factorial of a
+     * @throws IllegalArgumentException if a is not a positive integer value
+     */
+    public static BigDecimal logFactorial(BigDecimal a) {
+        if (isNegative(a) || !isInteger(a)) {
+            throw new IllegalArgumentException("a must be a positive integer");
+        }
+        return log(factorial(a));
+    }
+
+    /**
+     * Calculates the sine of the given angle (in radians).
+     *
+     * @param a the number
+     * @return the sine
+     */
+    public static BigDecimal sin(BigDecimal a) {
+        return sin(a, MC);
+    }
+
+    /**
+     * Calculates the sine of the given angle (in radians).
+     *
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the sine
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal sin(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ZERO;
+        }
+        return sinCos(a, working(context, GUARD_DIGITS))[0].round(context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse sine
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal asin(BigDecimal a) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("asin argument (" + a + ") must be >= -1.0 and <= 1.0");
+        }
+        return asin(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the inverse sine
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal asin(BigDecimal a, MathContext context) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("asin argument (" + a + ") must be >= -1.0 and <= 1.0");
+        } else if (a.signum() == 0) {
+            return ZERO;
+        }
+
+        MathContext mc = working(context, GUARD_DIGITS);
+        if (a.abs().compareTo(ONE) == 0) {
+            BigDecimal halfPi = pi(mc).multiply(ONE_HALF);
+            return (a.signum() < 0 ? halfPi.negate() : halfPi).round(context);
+        }
+        // 1 - a^2 is exact, it would lose digits for a close to 1 otherwise
+        return atan(a.divide(sqrt(ONE.subtract(a.multiply(a)), mc), mc), context);
+    }
+
+    /**
+     * Calculates the cosine of the given angle (in radians).
+     *
+     * @param a the number
+     * @return the cosine
+     */
+    public static BigDecimal cos(BigDecimal a) {
+        return cos(a, MC);
+    }
+
+    /**
+     * Calculates the cosine of the given angle (in radians).
+     *
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the cosine
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal cos(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ONE;
+        }
+        return sinCos(a, working(context, GUARD_DIGITS))[1].round(context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse cosine
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal acos(BigDecimal a) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("acos argument (" + a + ") must be >= -1.0 and <= 1.0");
+        }
+        return acos(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the inverse cosine
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal acos(BigDecimal a, MathContext context) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("acos argument (" + a + ") must be >= -1.0 and <= 1.0");
+        } else if (a.compareTo(ONE) == 0) {
+            return ZERO;
+        }
+
+        MathContext mc = working(context, GUARD_DIGITS);
+        if (a.compareTo(MINUS_ONE) == 0) {
+            return pi(mc).round(context);
+        }
+        // acos(a) = 2 atan(sqrt((1 - a) / (1 + a))), which does not lose digits for a close to 1 like pi/2 - asin(a)
+        BigDecimal half = atan(sqrt(ONE.subtract(a).divide(ONE.add(a), mc), mc), mc);
+        return half.multiply(TWO).round(context);
+    }
+
+    /**
+     * Calculates the tangent of the given angle (in radians)
+     *
+     * @param a the number
+     * @return the tangent
+     */
+    public static BigDecimal tan(BigDecimal a) {
+        return tan(a, MC);
+    }
+
+    /**
+     * Calculates the tangent of the given angle (in radians)
+     *
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the tangent
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal tan(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ZERO;
+        }
+        BigDecimal[] sinCos = sinCos(a, working(context, GUARD_DIGITS));
+        return sinCos[0].divide(sinCos[1], context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse tangent
+     */
+    public static BigDecimal atan(BigDecimal a) {
+        return atan(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the inverse tangent
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal atan(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ZERO;
+        }
+
+        MathContext mc = working(context, GUARD_DIGITS);
+        BigDecimal x = a.abs();
+        BigDecimal result = x.compareTo(ONE) > 0
+                            ? pi(mc).multiply(ONE_HALF).subtract(atanSeries(ONE.divide(x, mc), mc), mc)
+                            : atanSeries(x, mc);
+        return (a.signum() < 0 ? result.negate() : result).round(context);
+    }
+
+    /**
+     * @param a the numerator
+     * @param b the denominator
+     * @return the inverse tangent
+     */
+    public static BigDecimal atan2(BigDecimal a, BigDecimal b) {
+        return atan2(a, b, MC);
+    }
+
+    /**
+     * @param a       the numerator
+     * @param b       the denominator
+     * @param context the precision of the result
+     * @return the inverse tangent, the angle of the point (b, a) in the range -pi to pi
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal atan2(BigDecimal a, BigDecimal b, MathContext context) {
+        if (b.signum() > 0) {
+            return atan(a.divide(b, working(context, GUARD_DIGITS)), context);
+        } else if (b.signum() == 0) {
+            if (a.signum() == 0) {
+                return ZERO;
+            }
+            BigDecimal halfPi = pi(working(context, GUARD_DIGITS)).multiply(ONE_HALF);
+            return (a.signum() < 0 ? halfPi.negate() : halfPi).round(context);
+        }
+
+        MathContext mc = working(context, GUARD_DIGITS);
+        BigDecimal pi = pi(mc);
+        BigDecimal atan = a.signum() == 0 ? ZERO : atan(a.divide(b, mc), mc);
+        return (a.signum() < 0 ? atan.subtract(pi) : atan.add(pi)).round(context);
+    }
+
+    /**
+     * @param a the number
+     * @return the cotangent
+     */
+    public static BigDecimal cotan(BigDecimal a) {
+        return cotan(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the cotangent
+     * @throws ArithmeticException if a is 0, or if the context has an unlimited precision
+     */
+    public static BigDecimal cotan(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        BigDecimal[] sinCos = sinCos(a, working(context, GUARD_DIGITS));
+        return sinCos[1].divide(sinCos[0], context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse cotangent
+     */
+    public static BigDecimal acotan(BigDecimal a) {
+        return acotan(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the inverse cotangent
+     * @throws ArithmeticException if a is 0, or if the context has an unlimited precision
+     */
+    public static BigDecimal acotan(BigDecimal a, MathContext context) {
+        return atan(ONE.divide(a, working(context, GUARD_DIGITS)), context);
+    }
+
+    /**
+     * @param a the numerator
+     * @param b the denominator
+     * @return the inverse cotangent
+     */
+    public static BigDecimal acot2(BigDecimal a, BigDecimal b) {
+        return atan2(b, a);
+    }
+
+    /**
+     * @param a the number
+     * @return the secant
+     */
+    public static BigDecimal sec(BigDecimal a) {
+        return ONE.divide(cos(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse secant
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal asec(BigDecimal a) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("asec argument (" + a + ") must be >= -1.0 and <= 1.0");
+        }
+        return acos(ONE.divide(a, MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the cosecant
+     */
+    public static BigDecimal csc(BigDecimal a) {
+        return ONE.divide(sin(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse cosecant
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal acsc(BigDecimal a) {
+        if (a.compareTo(MINUS_ONE) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("acsc argument (" + a + ") must be >= -1.0 and <= 1.0");
+        }
+        return asin(ONE.divide(a, MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the exsecant
+     */
+    public static BigDecimal exsec(BigDecimal a) {
+        return ONE.divide(cos(a), MC).subtract(ONE, MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse exsecant
+     * @throws IllegalArgumentException if a &lt; -2 or a &gt; 0
+     */
+    public static BigDecimal aexsec(BigDecimal a) {
+        if (a.compareTo(MINUS_TWO) < 0 || a.compareTo(ZERO) > 0) {
+            throw new IllegalArgumentException("aexsec argument (" + a + ") must be >= -2 and <= 0");
+        }
+        return asin(ONE.divide(ONE.add(a, MC), MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the versine
+     */
+    public static BigDecimal vers(BigDecimal a) {
+        return ONE.subtract(cos(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse versine
+     * @throws IllegalArgumentException if a &lt; 0 or a &gt; 2
+     */
+    public static BigDecimal avers(BigDecimal a) {
+        if (a.compareTo(ZERO) < 0 || a.compareTo(TWO) > 0) {
+            throw new IllegalArgumentException("avers argument (" + a + ") must be <= 2 and >= 0");
+        }
+        return acos(ONE.subtract(a, MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the coversine
+     */
+    public static BigDecimal covers(BigDecimal a) {
+        return ONE.subtract(sin(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse coversine
+     * @throws IllegalArgumentException if a &lt; 0 or a &gt; 2
+     */
+    public static BigDecimal acovers(BigDecimal a) {
+        if (a.compareTo(ZERO) < 0 || a.compareTo(TWO) > 0) {
+            throw new IllegalArgumentException("acovers argument (" + a + ") must be <= 2 and >= 0");
+        }
+        return asin(ONE.subtract(a, MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the haversine
+     */
+    public static BigDecimal hav(BigDecimal a) {
+        return ONE_HALF.multiply(vers(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse haversine
+     * @throws IllegalArgumentException if a &lt; 0 or a &gt; 1
+     */
+    public static BigDecimal ahav(BigDecimal a) {
+        if (a.compareTo(ZERO) < 0 || a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("ahav argument (" + a + ") must be >= 0 and <= 1");
+        }
+        return ONE_HALF.multiply(vers(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the sinus cardinalis
+     */
+    public static BigDecimal sinc(BigDecimal a) {
+        return sin(a).divide(a, MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic sine
+     */
+    public static BigDecimal sinh(BigDecimal a) {
+        return sinh(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the hyperbolic sine
+     * @throws ArithmeticException if the result overflows, or if the context has an unlimited precision
+     */
+    public static BigDecimal sinh(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ZERO;
+        }
+        // e^a and e^-a share the leading digits for small a
+        MathContext mc = working(context, GUARD_DIGITS + Math.max(0, -exponent(a)));
+        BigDecimal exp = exp(a, mc);
+        return exp.subtract(ONE.divide(exp, mc)).multiply(ONE_HALF).round(context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic sine
+     */
+    public static BigDecimal asinh(BigDecimal a) {
+        BigDecimal sgn = ONE;
+
+        if (a.compareTo(ZERO) < 0) {
+            sgn = MINUS_ONE;
+            a = a.negate();
+        }
+
+        return sgn.multiply(log(a.add(sqrt(a.multiply(a, MC).add(ONE, MC)), MC)), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic cosine
+     */
+    public static BigDecimal cosh(BigDecimal a) {
+        return cosh(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the hyperbolic cosine
+     * @throws ArithmeticException if the result overflows, or if the context has an unlimited precision
+     */
+    public static BigDecimal cosh(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ONE;
+        }
+        MathContext mc = working(context, GUARD_DIGITS);
+        BigDecimal exp = exp(a, mc);
+        return exp.add(ONE.divide(exp, mc)).multiply(ONE_HALF).round(context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic cosine
+     * @throws IllegalArgumentException if a &lt; 1
+     */
+    public static BigDecimal acosh(BigDecimal a) {
+        if (a.compareTo(ONE) < 0) {
+            throw new IllegalArgumentException("acosh real number argument (" + a + ") must be >= 1");
+        }
+        return log(a.add(sqrt(a.multiply(a, MC).subtract(ONE, MC)), MC));
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic tangent
+     */
+    public static BigDecimal tanh(BigDecimal a) {
+        return tanh(a, MC);
+    }
+
+    /**
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the hyperbolic tangent
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal tanh(BigDecimal a, MathContext context) {
+        if (a.signum() == 0) {
+            return ZERO;
+        }
+        // e^2a and 1 share the leading digits for small a
+        MathContext mc = working(context, GUARD_DIGITS + Math.max(0, -exponent(a)));
+        if (a.abs().compareTo(BigDecimal.valueOf(mc.getPrecision())) > 0) {
+            // 1 - tanh(a) is below 2e^-2a, which does not show at this precision
+            return (a.signum() < 0 ? MINUS_ONE : ONE).round(context);
+        }
+        BigDecimal exp = exp(a.multiply(TWO), mc);
+        return exp.subtract(ONE).divide(exp.add(ONE), context);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic tangent
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal atanh(BigDecimal a) {
+        BigDecimal sgn = ONE;
+
+        if (a.compareTo(ZERO) < 0) {
+            sgn = MINUS_ONE;
+            a = a.negate();
+        }
+
+        if (a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("atanh real number argument (" + a.multiply(sgn)
+                                               + ") must be >= -1 and <= 1");
+        }
+
+        return ONE_HALF.multiply(sgn, MC).multiply(log(ONE.add(a)), MC).subtract(log(ONE.subtract(a, MC)), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic cotangent
+     */
+    public static BigDecimal cotanh(BigDecimal a) {
+        return ONE.divide(tanh(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic cotangent
+     * @throws IllegalArgumentException if a &lt; -1 or a &gt; 1
+     */
+    public static BigDecimal acoth(BigDecimal a) {
+        BigDecimal sgn = ONE;
+
+        if (a.compareTo(ZERO) < 0) {
+            sgn = MINUS_ONE;
+            a = a.negate();
+        }
+
+        if (a.compareTo(ONE) > 0) {
+            throw new IllegalArgumentException("acoth real number argument (" + a.multiply(sgn)
+                                               + ") must be >= -1 and <= 1");
+        }
+
+        return ONE_HALF.multiply(sgn, MC).multiply(log(ONE.add(a, MC)), MC).subtract(log(a.subtract(ONE, MC)), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic secant
+     */
+    public static BigDecimal sech(BigDecimal a) {
+        return ONE.divide(cosh(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic secant
+     * @throws IllegalArgumentException if a &lt; 0 or a &gt; 1
+     */
+    public static BigDecimal asech(BigDecimal a) {
+        if (a.compareTo(ONE) > 0 || a.compareTo(ZERO) < 0) {
+            throw new IllegalArgumentException("asech real number argument (" + a + ") must be >= 0 and <= 1");
+        }
+        return ONE_HALF.multiply(log(ONE.divide(a, MC).add(sqrt(ONE.divide(square(a).subtract(ONE, MC), MC)), MC)), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the hyperbolic cosecant
+     */
+    public static BigDecimal csch(BigDecimal a) {
+        return ONE.divide(sinh(a), MC);
+    }
+
+    /**
+     * @param a the number
+     * @return the inverse hyperbolic cosecant
+     */
+    public static BigDecimal acsch(BigDecimal a) {
+        BigDecimal sgn = ONE;
+
+        if (a.compareTo(ZERO) < 0) {
+            sgn = MINUS_ONE;
+            a = a.negate();
+        }
+        return ONE_HALF.multiply(sgn, MC).multiply(log(ONE.divide(a, MC).add(sqrt(ONE.divide(square(a).add(ONE, MC), MC)), MC)), MC);
+    }
+
+    /**
+     * Computes the square root, correctly rounded.
+     *
+     * @param a       the number
+     * @param context the precision of the result
+     * @return the square root
+     * @throws ArithmeticException if a &lt; 0, or if the context has an unlimited precision and the root has no
+     *                             exact decimal representation
+     */
+    public static BigDecimal sqrt(BigDecimal a, MathContext context) {
+        return root(a, 2, context);
+    }
+
+    /**
+     * Computes the n-th root, correctly rounded. The decimal is scaled to an integer with n times the digits of the
+     * result, of which the integer root is taken.
+     *
+     * @param a       the number
+     * @param n       the degree of the root
+     * @param context the precision of the result
+     * @return the n-th root, the number raised to the power of 1/n
+     * @throws ArithmeticException if n &lt; 1, if a &lt; 0 and n is even, or if the context has an unlimited
+     *                             precision and the root has no exact decimal representation
+     */
+    public static BigDecimal root(BigDecimal a, int n, MathContext context) {
+        if (n < 1) {
+            throw new ArithmeticException("Root of a degree < 1");
+        } else if (a.signum() < 0) {
+            if (n % 2 == 0) {
+                throw new ArithmeticException((n == 2 ? "Square" : "Even") + " root of a negative number");
+            }
+            return root(a.negate(), n, context).negate();
+        } else if (a.signum() == 0 || n == 1) {
+            return a.round(context);
+        }
+
+        // scale the unscaled value by a power of 10 to n times the digits of the result, and to a multiple of n
+        int digits = context.getPrecision() == 0 ? 0 : context.getPrecision() + 2;
+        int shift = Math.max(0, Math.multiplyExact(n, digits) - a.precision());
+        shift += Math.floorMod(-(a.scale() + shift), n);
+        BigInteger value = a.unscaledValue().multiply(BigInteger.TEN.pow(shift));
+        int scale = (a.scale() + shift) / n;
+
+        BigInteger root = iroot(value, n);
+        if (!root.pow(n).equals(value)) {
+            if (context.getPrecision() == 0) {
+                throw new ArithmeticException("Non-terminating decimal expansion; no exact representable root");
+            }
+            // a trailing digit marks the root as inexact, so it is not rounded as if it were halfway
+            root = root.multiply(BigInteger.TEN).add(BigInteger.ONE);
+            scale++;
+        }
+        return new BigDecimal(root, scale).round(context);
+    }
+
+    /**
+     * @param context the precision of the result
+     * @return pi
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal pi(MathContext context) {
+        return constant(CACHED_PI, context);
+    }
+
+    /**
+     * @param context the precision of the result
+     * @return Euler's number <i>e</i>, the base of the natural logarithms
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    public static BigDecimal e(MathContext context) {
+        return constant(CACHED_E, context);
+    }
+
+    /**
+     * @param constant a constant of at least 1/2
+     * @param context  the precision of the result
+     * @return the constant as a decimal
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    private static BigDecimal constant(Constant constant, MathContext context) {
+        int bits = bits(working(context, 2));
+        return decimal(constant.fixed(bits), bits, context);
+    }
+
+    /**
+     * Computes pi with the Chudnovsky series, which adds about 14 digits per term:
+     * <pre>
+     *     1/pi = 12 / 640320^(3/2) * sum((-1)^k (6k)! (13591409 + 545140134k) / ((3k)! (k!)^3 640320^(3k)))
+     * </pre>
+     *
+     * @param bits the number of fraction bits of the result
+     * @return pi as a fixed point number
+     */
+    private static BigInteger chudnovsky(int bits) {
+        // every term adds log2(640320^3 / 1728) bits
+        int terms = (int) (bits / (Math.log(Math.pow(640320, 3) / 1728) / Math.log(2))) + 2;
+        BigInteger ratio = BigInteger.valueOf(640320).pow(3).divide(BigInteger.valueOf(24));
+        BigInteger sum = new BinarySplitting(k -> BigInteger.valueOf(545140134).multiply(BigInteger.valueOf(k))
+                                                            .add(BigInteger.valueOf(13591409)),
+                                             k -> BigInteger.ONE,
+                                             k -> k == 0 ? BigInteger.ONE
+                                                         : BigInteger.valueOf(6 * k - 5)
+                                                                     .multiply(BigInteger.valueOf(2 * k - 1))
+                                                                     .multiply(BigInteger.valueOf(6 * k - 1))
+                                                                     .negate(),
+                                             k -> k == 0 ? BigInteger.ONE
+                                                         : BigInteger.valueOf(k).pow(3).multiply(ratio))
+                .sum(terms, bits);
+        BigInteger root = isqrt(BigInteger.valueOf(10005).shiftLeft(2 * bits));
+        return BigInteger.valueOf(426880).multiply(root).shiftLeft(bits).divide(sum);
+    }
+
+    /**
+     * Computes e = 1/0! + 1/1! + 1/2! + ... by binary splitting.
+     *
+     * @param bits the number of fraction bits of the result
+     * @return Euler's number as a fixed point number
+     */
+    private static BigInteger euler(int bits) {
+        int terms = 1;
+        for (double magnitude = 0; magnitude < bits; terms++) {
+            magnitude += Math.log(terms) / Math.log(2);
+        }
+        return new BinarySplitting(k -> BigInteger.ONE,
+                                   k -> BigInteger.ONE,
+                                   k -> BigInteger.ONE,
+                                   k -> k == 0 ? BigInteger.ONE : BigInteger.valueOf(k))
+                .sum(terms + 1, bits);
+    }
+
+    /**
+     * Computes ln(2) = 18 atanh(1/26) - 2 atanh(1/4801) + 8 atanh(1/8749).
+     *
+     * @param bits the number of fraction bits of the result
+     * @return the natural logarithm of 2 as a fixed point number
+     */
+    private static BigInteger ln2(int bits) {
+        return atanhInverse(26, bits).multiply(BigInteger.valueOf(18))
+                                     .subtract(atanhInverse(4801, bits).shiftLeft(1))
+                                     .add(atanhInverse(8749, bits).shiftLeft(3));
+    }
+
+    /**
+     * Computes ln(10) = 3 ln(2) + ln(5/4), where ln(5/4) = 2 atanh(1/9).
+     *
+     * @param bits the number of fraction bits of the result
+     * @return the natural logarithm of 10 as a fixed point number
+     */
+    private static BigInteger ln10(int bits) {
+        return CACHED_LN2.fixed(bits).multiply(BigInteger.valueOf(3)).add(atanhInverse(9, bits).shiftLeft(1));
+    }
+
+    /**
+     * Sums the series <code>atanh(1/n) = 1/n + 1/3n^3 + 1/5n^5 + ...</code> by binary splitting.
+     *
+     * @param n    the inverse of the argument
+     * @param bits the number of fraction bits of the result
+     * @return the inverse hyperbolic tangent of 1/n as a fixed point number
+     */
+    private static BigInteger atanhInverse(int n, int bits) {
+        BigInteger inverse = BigInteger.valueOf(n);
+        BigInteger square = inverse.multiply(inverse);
+        int terms = (int) Math.ceil(bits / (2 * Math.log(n) / Math.log(2))) + 2;
+        return new BinarySplitting(k -> BigInteger.ONE,
+                                   k -> BigInteger.valueOf(2 * k + 1),
+                                   k -> BigInteger.ONE,
+                                   k -> k == 0 ? inverse : square)
+                .sum(terms, bits);
+    }
+
+    /**
+     * @param a    the first fixed point number
+     * @param b    the second fixed point number
+     * @param bits the number of fraction bits of the numbers
+     * @return the arithmetic-geometric mean of both numbers
+     */
+    private static BigInteger agm(BigInteger a, BigInteger b, int bits) {
+        // the relative difference is squared in every iteration, one more suffices once it is below half the bits
+        while (a.subtract(b).abs().shiftLeft(bits / 2).compareTo(a) > 0) {
+            BigInteger next = a.add(b).shiftRight(1);
+            b = isqrt(a.multiply(b));
+            a = next;
+        }
+        return a.add(b).shiftRight(1);
+    }
+
+    /**
+     * Computes the sine and cosine of an angle. The angle is reduced by a multiple of pi/2 to at most pi/4, and
+     * halved a number of times before the Taylor series are summed. The halvings are undone with the double angle
+     * formulas.
+     *
+     * @param a       the angle in radians
+     * @param context the precision of the results
+     * @return the sine and cosine
+     */
+    private static BigDecimal[] sinCos(BigDecimal a, MathContext context) {
+        BigDecimal r = a;
+        int quadrant = 0;
+        if (a.abs().compareTo(QUARTER_PI_LOWER_BOUND) > 0) {
+            // the digits of the integer part of a are lost in the subtraction
+            int digits = Math.max(0, a.precision() - a.scale());
+            MathContext mc = new MathContext(context.getPrecision() + digits, RoundingMode.HALF_EVEN);
+            BigDecimal halfPi = pi(mc).multiply(ONE_HALF);
+            BigInteger k = a.divide(halfPi, new MathContext(digits + 3)).setScale(0, RoundingMode.HALF_EVEN)
+                            .toBigInteger();
+            r = a.subtract(halfPi.multiply(new BigDecimal(k)), mc);
+            quadrant = k.mod(BigInteger.valueOf(4)).intValue();
+
+            // as are the leading digits of a close to a multiple of pi/2
+            int lost = r.signum() == 0 ? mc.getPrecision() : -exponent(r) - 1;
+            if (lost > 0) {
+                mc = new MathContext(mc.getPrecision() + lost, RoundingMode.HALF_EVEN);
+                r = a.subtract(pi(mc).multiply(ONE_HALF).multiply(new BigDecimal(k)), mc);
+            }
+        }
+
+        BigDecimal sin = ZERO;
+        BigDecimal cos = ONE;
+        if (r.signum() != 0) {
+            int halvings = (int) Math.sqrt(context.getPrecision() * BITS_PER_DIGIT) / 2;
+            // a small angle needs more fraction bits for the same relative precision of its sine
+            int bits = bits(context) + halvings + (int) Math.max(0, -exponent(r) * BITS_PER_DIGIT);
+            BigInteger one = BigInteger.ONE.shiftLeft(bits);
+            BigInteger x = fixed(r, bits - halvings);
+            BigInteger square = x.multiply(x).shiftRight(bits);
+
+            BigInteger sinSum = x;
+            BigInteger cosSum = one;
+            BigInteger sinTerm = x;
+            BigInteger cosTerm = one;
+            for (long n = 1; sinTerm.signum() != 0 || cosTerm.signum() != 0; n++) {
+                cosTerm = cosTerm.multiply(square).shiftRight(bits).divide(BigInteger.valueOf((2 * n - 1) * (2 * n)))
+                                 .negate();
+                sinTerm = sinTerm.multiply(square).shiftRight(bits).divide(BigInteger.valueOf((2 * n) * (2 * n + 1)))
+                                 .negate();
+                cosSum = cosSum.add(cosTerm);
+                sinSum = sinSum.add(sinTerm);
+            }
+
+            for (int i = 0; i < halvings; i++) {
+                BigInteger doubled = sinSum.multiply(cosSum).shiftRight(bits - 1);
+                cosSum = one.subtract(sinSum.multiply(sinSum).shiftRight(bits - 1));
+                sinSum = doubled;
+            }
+            sin = decimal(sinSum, bits, context);
+            cos = decimal(cosSum, bits, context);
+        }
+
+        switch (quadrant) {
+            case 1:
+                return new BigDecimal[]{cos, sin.negate()};
+            case 2:
+                return new BigDecimal[]{sin.negate(), cos.negate()};
+            case 3:
+                return new BigDecimal[]{cos.negate(), sin};
+            default:
+                return new BigDecimal[]{sin, cos};
+        }
+    }
+
+    /**
+     * Computes the inverse tangent by halving the argument with <code>x / (1 + sqrt(1 + x^2))</code> a number of
+     * times before summing the Taylor series.
+     *
+     * @param a       a number in the range 0 to 1
+     * @param context the precision of the result
+     * @return the inverse tangent
+     */
+    private static BigDecimal atanSeries(BigDecimal a, MathContext context) {
+        // a halving costs a square root, balance their number against the terms of the series
+        int halvings = Math.max(2, (int) Math.sqrt(context.getPrecision() * BITS_PER_DIGIT / 30));
+        // a small argument needs more fraction bits for the same relative precision
+        int bits = bits(context) + halvings + (int) Math.max(0, -exponent(a) * BITS_PER_DIGIT);
+        BigInteger one = BigInteger.ONE.shiftLeft(bits);
+
+        BigInteger x = fixed(a, bits);
+        for (int i = 0; i < halvings; i++) {
+            BigInteger root = isqrt(one.add(x.multiply(x).shiftRight(bits)).shiftLeft(bits));
+            x = x.shiftLeft(bits).divide(one.add(root));
+        }
+
+        BigInteger square = x.multiply(x).shiftRight(bits);
+        BigInteger power = x;
+        BigInteger sum = x;
+        for (long n = 1; power.signum() != 0; n++) {
+            power = power.multiply(square).shiftRight(bits).negate();
+            sum = sum.add(power.divide(BigInteger.valueOf(2 * n + 1)));
+        }
+        return decimal(sum.shiftLeft(halvings), bits, context);
+    }
+
+    /**
+     * @param n a positive number
+     * @return the largest integer whose square is at most n
+     */
+    private static BigInteger isqrt(BigInteger n) {
+        return iroot(n, 2);
+    }
+
+    /**
+     * Computes the integer root with Newton's method, doubling the precision in every step. The root of the leading
+     * bits of the number is computed first, recursively, after which a single Newton step at the full precision
+     * doubles its number of correct bits. Only the root of the leading 100 bits is computed from a double, iterating
+     * until it converges.
+     *
+     * @param n      a positive number
+     * @param degree the degree of the root, at least 2
+     * @return the largest integer whose degree-th power is at most n
+     */
+    private static BigInteger iroot(BigInteger n, int degree) {
+        if (n.signum() == 0) {
+            return BigInteger.ZERO;
+        }
+
+        // the root of the leading bits has half the bits of the root, and a few more to spare
+        int half = n.bitLength() / degree / 2 - 8;
+        if (half < 32) {
+            int shift = Math.max(0, n.bitLength() - 100) / degree * degree;
+            double leading = Math.pow(n.shiftRight(shift).doubleValue(), 1.0 / degree);
+            // an upper bound of the root, from which the integer Newton steps decrease until they reach it
+            BigInteger x = BigDecimal.valueOf(leading * (1 + 0x1p-40) + 1).toBigInteger().shiftLeft(shift / degree);
+            while (true) {
+                BigInteger next = newton(n, degree, x);
+                if (next.compareTo(x) >= 0) {
+                    return x;
+                }
+                x = next;
+            }
+        }
+
+        // a Newton step never ends below the root, at most a few units above it
+        BigInteger x = newton(n, degree, iroot(n.shiftRight(half * degree), degree).shiftLeft(half));
+        while (x.pow(degree).compareTo(n) > 0) {
+            x = x.subtract(BigInteger.ONE);
+        }
+        return x;
+    }
+
+    /**
+     * @param n      a positive number
+     * @param degree the degree of the root
+     * @param x      an approximation of the root
+     * @return the next approximation, <code>((degree - 1) x + n / x^(degree - 1)) / degree</code> rounded down
+     */
+    private static BigInteger newton(BigInteger n, int degree, BigInteger x) {
+        BigInteger sum = x.multiply(BigInteger.valueOf(degree - 1)).add(n.divide(x.pow(degree - 1)));
+        return sum.divide(BigInteger.valueOf(degree));
+    }
+
+    /**
+     * @param a    a number
+     * @param bits the number of fraction bits
+     * @return the number as a fixed point number, rounded towards zero
+     */
+    private static BigInteger fixed(BigDecimal a, int bits) {
+        return a.multiply(new BigDecimal(BigInteger.ONE.shiftLeft(bits))).toBigInteger();
+    }
+
+    /**
+     * @param a       a fixed point number
+     * @param bits    the number of fraction bits of the number
+     * @param context the precision of the result
+     * @return the number as a decimal
+     */
+    private static BigDecimal decimal(BigInteger a, int bits, MathContext context) {
+        return new BigDecimal(a).divide(new BigDecimal(BigInteger.ONE.shiftLeft(bits)), context);
+    }
+
+    /**
+     * @param context a precision
+     * @return the number of fraction bits of a fixed point number between 1 and 2 with that many digits
+     */
+    private static int bits(MathContext context) {
+        return (int) Math.ceil(context.getPrecision() * BITS_PER_DIGIT);
+    }
+
+    /**
+     * @param context the precision requested by the caller
+     * @param extra   the number of extra digits
+     * @return the precision to compute intermediate results with
+     * @throws ArithmeticException if the context has an unlimited precision
+     */
+    private static MathContext working(MathContext context, int extra) {
+        if (context.getPrecision() == 0) {
+            throw new ArithmeticException("Non-terminating result of a function with an unlimited precision");
+        }
+        return new MathContext(context.getPrecision() + extra, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @param a a number other than 0
+     * @return the power of 10 of the leading digit of the number
+     */
+    private static int exponent(BigDecimal a) {
+        return a.precision() - a.scale() - 1;
+    }
+
+    /**
+     * @param a the number
+     * @return the square root
+     */
+    public static BigDecimal sqrt(BigInteger a) {
+        return sqrt(new BigDecimal(a));
+    }
+
+    /**
+     * @param a the number
+     * @return the square root
+     */
+    public static BigDecimal sqrt(BigDecimal a) {
+
+        // Make sure a is a positive number
+        if (a.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException();
+        }
+        return sqrt(a, MC);
+    }
+
+    /**
+     * Calculates the faculty of the value a.
+     *
+     * @param a the value to calculate the faculty for
+     * @return the faculty of a
+     * @throws ArithmeticException if a is too large
+     */
+    public static BigDecimal fac(BigDecimal a) {
+
+        if (!isInteger(a)) {
+            return NaN;
+        } else if (a.compareTo(ZERO) < 0) {
+            return NaN;
+        }
+
+        return round(Factorials.factorial(factorialArgument(a)));
+    }
+
+    /**
+     * Calculates the semi faculty of the value a, the product a (a - 2) (a - 4) ... down to 1 or 2.
+     *
+     * @param a the value to calculate the semi faculty for
+     * @return the semi faculty of a
+     * @throws ArithmeticException if a is too large
+     */
+    public static BigDecimal sfac(BigDecimal a) {
+
+        if (!isInteger(a)) {
+            return NaN;
+        } else if (a.compareTo(ZERO) < 0) {
+            return NaN;
+        }
+
+        return round(Factorials.doubleFactorial(factorialArgument(a)));
+    }
+
+    /**
+     * @param a a positive integer
+     * @return the integer as an int
+     * @throws ArithmeticException if the factorial of the integer is too large to compute
+     */
+    private static int factorialArgument(BigDecimal a) {
+        if (a.compareTo(BigDecimal.valueOf(Factorials.MAXIMUM_ARGUMENT)) > 0) {
+            throw new ArithmeticException("Factorial argument too large: " + a);
+        }
+        return a.intValue();
+    }
+
+    /**
+     * Rounds an exact integer to {@link #MC}. A large integer is rounded from its leading bits, instead of dividing
+     * all of it by a power of 10.
+     *
+     * @param a an integer
+     * @return the integer rounded to {@link #MC}
+     */
+    private static BigDecimal round(BigInteger a) {
+        int excess = a.bitLength() - 2 * bits(MC);
+        if (excess <= 0) {
+            return new BigDecimal(a).round(MC);
+        }
+        // the truncated bits and the rounding of the power of 2 change the result far below the last digit of MC
+        BigDecimal leading = new BigDecimal(a.shiftRight(excess));
+        MathContext mc = working(MC, GUARD_DIGITS);
+        return leading.multiply(TWO.pow(excess, mc), mc).round(MC);
+    }
+
+    /**
+     * Calculates the integer part of the value a.
+     *
+     * @param a the value to calculate the fpart for
+     * @return the fpart of a
+     */
+    public static BigDecimal fpart(BigDecimal a) {
+        if (a.compareTo(ZERO) >= 0) {
+            return a.subtract(BigDecimal.valueOf(StrictMath.floor(a.doubleValue())), MC);
+        } else {
+            return a.subtract(BigDecimal.valueOf(StrictMath.ceil(a.doubleValue())), MC);
+        }
+    }
+
+    /**
+     * Check to see if the BigDecimal can be considered a positive a (>= 0).
+     *
+     * @param a the {@link java.math.BigDecimal} a to check
+     * @return <code>true</code> if the a is positive, <code>false</code> otherwise.
+     */
+    private static boolean isNegative(BigDecimal a) {
+        return a.compareTo(BigDecimal.ZERO) < 0;
+    }
+
+    /**
+     * Checks to see if the BigDecimal can be considered to be a mathematical integer. Trailing zeros of the fraction
+     * are ignored, so 5.0 is an integer.
+     *
+     * @param a the {@link java.math.BigDecimal} a to check
+     * @return <code>true</code> if the a is an integer, <code>false</code> otherwise.
+     */
+    private static boolean isInteger(BigDecimal a) {
+        return a.signum() == 0 || a.scale() <= 0 || a.stripTrailingZeros().scale() <= 0;
+    }
+
+    /**
+     * Checks to see if the BigDecimal is an even number.
+     *
+     * @param a the number
+     * @return <code>true if a is an even number, <code>false if a is an odd number
+     * @throws IllegalArgumentException if a isn't an integer value
+     */
+    public static boolean isEven(BigDecimal a) {
+        if (!isInteger(a)) {
+            throw new IllegalArgumentException("the argument is not an integer");
+        }
+        return a.remainder(TWO, MC).compareTo(ZERO) == 0;
+    }
+
+    /**
+     * Checks to see if the BigDecimal is an odd number.
+     *
+     * @param a the number
+     * @return <code>true</code> if a is an odd number, <code>false</code> if a is an even number
+     * @throws IllegalArgumentException if a isn't an integer value
+     */
+    public static boolean isOdd(BigDecimal a) {
+        return !isEven(a);
+    }
+
+    /**
+     * Convert gradians to degrees.
+     *
+     * @param a the angle in gradians
+     * @return the angle in degrees
+     */
+    public static BigDecimal gradiansToDegrees(BigDecimal a) {
+        return a.divide(TWO_HUNDRED, MC).multiply(ONE_EIGHTY, MC);
+    }
+
+    /**
+     * Convert degrees to gradians.
+     *
+     * @param a the angel in degrees
+     * @return the angle in gradians
+     */
+    public static BigDecimal degreesToGradians(BigDecimal a) {
+        return a.divide(ONE_EIGHTY, MC).multiply(TWO_HUNDRED, MC);
+    }
+
+    /**
+     * Convert degrees to radians.
+     *
+     * @param a the angel in degrees
+     * @return the angle in radians
+     */
+    public static BigDecimal degreesToRadians(BigDecimal a) {
+        return a.multiply(pi(MC), MC).divide(ONE_EIGHTY, MC);
+    }
+
+    /**
+     * Convert radians to degrees.
+     *
+     * @param a the angel in radians
+     * @return the angle in degrees
+     */
+    public static BigDecimal radiansToDegrees(BigDecimal a) {
+        return a.multiply(ONE_EIGHTY, MC).divide(pi(MC), MC);
+    }
+
+    /**
+     * Convert radians to gradians.
+     *
+     * @param a the angel in radians
+     * @return the angle in gradians
+     */
+    public static BigDecimal radiansToGradians(BigDecimal a) {
+        return a.multiply(TWO_HUNDRED, MC).divide(pi(MC), MC);
+    }
+
+    /**
+     * Convert gradians to radians.
+     *
+     * @param a the angel in gradians
+     * @return the angle in radians
+     */
+    public static BigDecimal gradiansToRadians(BigDecimal a) {
+        return a.multiply(pi(MC), MC).divide(TWO_HUNDRED, MC);
+    }
+}
\ No newline at end of file
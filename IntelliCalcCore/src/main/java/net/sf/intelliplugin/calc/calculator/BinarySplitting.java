@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import java.math.BigInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Sums a hypergeometric-like series with rational terms by binary splitting. The series is
+ * <pre>
+ *     a(0)/b(0) * p(0)/q(0) + a(1)/b(1) * p(0)p(1)/q(0)q(1) + ...
+ * </pre>
+ * Instead of adding the terms one by one at full precision, the terms are combined pairwise into exact integer
+ * fractions, and a single division produces the sum. For series whose terms are small
+ * integers, like the ones of <i>e</i><sup>x</sup> or <i>atanh</i> at a rational argument, this is far cheaper than
+ * summing rounded terms once hundreds of digits are needed.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class BinarySplitting {
+
+    private final IntFunction<BigInteger> a;
+    private final IntFunction<BigInteger> b;
+    private final IntFunction<BigInteger> p;
+    private final IntFunction<BigInteger> q;
+
+    /**
+     * @param a the numerator of the coefficient of term k
+     * @param b the denominator of the coefficient of term k
+     * @param p the numerator of the ratio between term k and term k - 1
+     * @param q the denominator of the ratio between term k and term k - 1
+     */
+    BinarySplitting(IntFunction<BigInteger> a, IntFunction<BigInteger> b,
+                    IntFunction<BigInteger> p, IntFunction<BigInteger> q) {
+        this.a = a;
+        this.b = b;
+        this.p = p;
+        this.q = q;
+    }
+
+    /**
+     * @param terms the number of terms to sum
+     * @param bits  the number of fraction bits of the sum
+     * @return the sum of the first terms of the series as a fixed point number, the sum multiplied by 2^bits
+     */
+    BigInteger sum(int terms, int bits) {
+        Split split = split(0, terms);
+        return split.t.shiftLeft(bits).divide(split.b.multiply(split.q));
+    }
+
+    /**
+     * @param from the first term
+     * @param to   the term following the last term
+     * @return the terms from up to to, as one fraction
+     */
+    private Split split(int from, int to) {
+        if (to - from == 1) {
+            BigInteger pk = p.apply(from);
+            return new Split(pk, q.apply(from), b.apply(from), a.apply(from).multiply(pk));
+        }
+
+        int mid = (from + to) >>> 1;
+        Split left = split(from, mid);
+        Split right = split(mid, to);
+        return new Split(left.p.multiply(right.p),
+                         left.q.multiply(right.q),
+                         left.b.multiply(right.b),
+                         right.b.multiply(right.q).multiply(left.t)
+                                .add(left.b.multiply(left.p).multiply(right.t)));
+    }
+
+    /**
+     * The terms of a range as the fraction <code>t / (b * q)</code>, with the products of the ratios
+     * <code>p / q</code> and of the coefficient denominators <code>b</code> of the range.
+     */
+    private static final class Split {
+        private final BigInteger p;
+        private final BigInteger q;
+        private final BigInteger b;
+        private final BigInteger t;
+
+        private Split(BigInteger p, BigInteger q, BigInteger b, BigInteger t) {
+            this.p = p;
+            this.q = q;
+            this.b = b;
+            this.t = t;
+        }
+    }
+}
@@ -23,6 +23,7 @@ package net.sf.intelliplugin.calc.calculator;
 
 import net.sf.intelliplugin.calc.AngleSystem;
 import net.sf.intelliplugin.calc.NumeralSystem;
+import net.sf.intelliplugin.calc.metrics.MetricsListener;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
@@ -87,6 +88,11 @@ public class CalcEngine {
      */
     private AngleSystem angleSystem = AngleSystem.DEGREES;
 
+    /**
+     * The listener told about the operators executed, null if nothing is measured.
+     */
+    private volatile MetricsListener metricsListener;
+
     private CalcEngine() {
         clearAll();
     }
@@ -164,6 +170,8 @@ public class CalcEngine {
     public void evaluate(boolean percentage) {
         try {
             if (currentOperator != null) {
+                MetricsListener listener = metricsListener;
+                long start = listener == null ? 0 : System.nanoTime();
                 if (currentOperator.getArgumentCount() == 2) {
                     storedValue = currentOperator.execute(percentage, storedValue, currentValue);
                 } else {
@@ -174,6 +182,10 @@ public class CalcEngine {
                         storedValue = currentOperator.execute(percentage, currentValue);
                     }
                 }
+                if (listener != null) {
+                    listener.calculated(currentOperator.getClass().getSimpleName(),
+                                        storedValue == null ? 0 : storedValue.precision(), System.nanoTime() - start);
+                }
                 currentValue = storedValue;
             }
             inputActive = false;
@@ -406,6 +418,15 @@ public class CalcEngine {
         }
     }
 
+    /**
+     * Sets the listener told about the execution times of the operators. Without a listener nothing is measured.
+     *
+     * @param metricsListener the listener, or null to stop measuring
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
     /**
      * Overwrites the current value with a new constant value.
      *
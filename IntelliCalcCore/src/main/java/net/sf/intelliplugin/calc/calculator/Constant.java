@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import java.math.BigInteger;
+import java.util.function.IntFunction;
+
+/**
+ * A mathematical constant as a binary fixed point number, computed on demand. The most precise value computed so far is
+ * kept, values with fewer bits are truncated from it, so the constant is only recomputed when more bits are needed
+ * than ever before.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Constant {
+
+    /**
+     * The number of bits the constant is computed with beyond the requested ones, absorbing its rounding errors.
+     */
+    private static final int GUARD_BITS = 32;
+
+    private final IntFunction<BigInteger> computation;
+    private volatile Value value = new Value(0, BigInteger.ZERO);
+
+    /**
+     * @param computation computes the constant for a number of fraction bits, to within a few units in the last place
+     */
+    Constant(IntFunction<BigInteger> computation) {
+        this.computation = computation;
+    }
+
+    /**
+     * @param bits the number of fraction bits
+     * @return the constant multiplied by 2^bits, rounded towards zero
+     */
+    BigInteger fixed(int bits) {
+        Value current = value;
+        if (current.bits < bits) {
+            current = compute(bits);
+        }
+        return current.fixed.shiftRight(current.bits - bits);
+    }
+
+    /**
+     * @param bits the number of fraction bits needed
+     * @return the cached value, recomputed with at least the bits needed
+     */
+    private synchronized Value compute(int bits) {
+        Value current = value;
+        if (current.bits < bits) {
+            // requests of slowly growing precision would otherwise recompute the constant every time
+            int precision = Math.max(bits, current.bits + current.bits / 2);
+            current = new Value(precision, computation.apply(precision + GUARD_BITS).shiftRight(GUARD_BITS));
+            value = current;
+        }
+        return current;
+    }
+
+    /**
+     * A fixed point value with the number of its fraction bits.
+     */
+    private static final class Value {
+        private final int bits;
+        private final BigInteger fixed;
+
+        private Value(int bits, BigInteger fixed) {
+            this.bits = bits;
+            this.fixed = fixed;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact factorials and double factorials on {@link BigInteger}.
+ * <p/>
+ * The factorial is split in a power of 2 and its odd part. The odd part of <code>n!</code> is the product of the odd
+ * numbers up to <code>n</code>, up to <code>n/2</code>, up to <code>n/4</code>, ..., so only odd numbers are
+ * multiplied and every range is multiplied once. The ranges are multiplied as a balanced product tree, which keeps the
+ * factors of every multiplication of about the same size, and large ranges are multiplied in parallel on the common
+ * {@link ForkJoinPool}. The most recently used results are cached, up to a total number of bits.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Factorials {
+
+    /**
+     * The largest argument accepted, its factorial has about 65 million digits.
+     */
+    static final int MAXIMUM_ARGUMENT = 10000000;
+
+    /**
+     * Ranges with fewer odd numbers are multiplied by the current thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Ranges with fewer odd numbers are multiplied one by one, in a long while the product fits.
+     */
+    private static final int LEAF_SIZE = 16;
+
+    private static final int MAXIMUM_CACHE_SIZE = 64;
+    private static final long MAXIMUM_CACHE_BITS = 1L << 26;
+
+    private static final Map<Long, BigInteger> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheBits;
+
+    private Factorials() {
+    }
+
+    /**
+     * @param n a number from 0 up to {@link #MAXIMUM_ARGUMENT}
+     * @return n!
+     */
+    static BigInteger factorial(int n) {
+        check(n);
+        Long key = (long) n;
+        BigInteger cached = cached(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // the odd part of n! is the product of the odd numbers up to n >> i, for every i
+        BigInteger odd = BigInteger.ONE;
+        BigInteger result = BigInteger.ONE;
+        for (int i = 31 - Integer.numberOfLeadingZeros(Math.max(n, 1)); i >= 0; i--) {
+            odd = odd.multiply(oddProduct(n >> (i + 1), n >> i));
+            result = result.multiply(odd);
+        }
+        // n! holds n - (the number of one bits of n) factors of 2
+        return cache(key, result.shiftLeft(n - Integer.bitCount(n)));
+    }
+
+    /**
+     * @param n a number from 0 up to {@link #MAXIMUM_ARGUMENT}
+     * @return n!!, the product of n, n - 2, n - 4, ... down to 1 or 2
+     */
+    static BigInteger doubleFactorial(int n) {
+        check(n);
+        if (n % 2 == 0) {
+            // (2m)!! = 2^m m!
+            return factorial(n / 2).shiftLeft(n / 2);
+        }
+
+        // the keys of odd double factorials are negative, zero is an even factorial
+        Long key = (long) -n;
+        BigInteger cached = cached(key);
+        return cached != null ? cached : cache(key, oddProduct(0, n));
+    }
+
+    private static void check(int n) {
+        if (n < 0) {
+            throw new ArithmeticException("Factorial of a negative number");
+        } else if (n > MAXIMUM_ARGUMENT) {
+            throw new ArithmeticException("Factorial argument too large: " + n);
+        }
+    }
+
+    /**
+     * @param from the number before the range
+     * @param to   the last number of the range
+     * @return the product of the odd numbers in the range
+     */
+    private static BigInteger oddProduct(int from, int to) {
+        // the odd numbers 2k + 1 of the range
+        int low = (from + 1) / 2;
+        int high = (to + 1) / 2;
+        if (high - low <= PARALLEL_THRESHOLD) {
+            return product(low, high);
+        }
+        return ForkJoinPool.commonPool().invoke(new ProductTask(low, high));
+    }
+
+    /**
+     * @param low  the first k
+     * @param high the k following the last
+     * @return the product of 2k + 1 for k in the range
+     */
+    private static BigInteger product(int low, int high) {
+        if (high - low <= LEAF_SIZE) {
+            BigInteger result = BigInteger.ONE;
+            long partial = 1;
+            for (int k = low; k < high; k++) {
+                long factor = 2L * k + 1;
+                if (partial > Long.MAX_VALUE / factor) {
+                    result = result.multiply(BigInteger.valueOf(partial));
+                    partial = 1;
+                }
+                partial *= factor;
+            }
+            return result.multiply(BigInteger.valueOf(partial));
+        }
+
+        int middle = (low + high) >>> 1;
+        return product(low, middle).multiply(product(middle, high));
+    }
+
+    private static synchronized BigInteger cached(Long key) {
+        return CACHE.get(key);
+    }
+
+    /**
+     * Caches a result, evicting the least recently used results if the cache holds too many, or too many bits.
+     *
+     * @param key   the key of the result
+     * @param value the result
+     * @return the result
+     */
+    private static synchronized BigInteger cache(Long key, BigInteger value) {
+        long bits = value.bitLength();
+        if (bits > MAXIMUM_CACHE_BITS) {
+            return value;
+        }
+
+        BigInteger previous = CACHE.put(key, value);
+        cacheBits += bits - (previous == null ? 0 : previous.bitLength());
+        Iterator<BigInteger> eldest = CACHE.values().iterator();
+        while (CACHE.size() > MAXIMUM_CACHE_SIZE || cacheBits > MAXIMUM_CACHE_BITS) {
+            cacheBits -= eldest.next().bitLength();
+            eldest.remove();
+        }
+        return value;
+    }
+
+    private static final class ProductTask extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final int low;
+        private final int high;
+
+        private ProductTask(int low, int high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (high - low <= PARALLEL_THRESHOLD) {
+                return product(low, high);
+            }
+
+            int middle = (low + high) >>> 1;
+            ProductTask right = new ProductTask(middle, high);
+            right.fork();
+            BigInteger left = new ProductTask(low, middle).compute();
+            return left.multiply(right.join());
+        }
+    }
+}
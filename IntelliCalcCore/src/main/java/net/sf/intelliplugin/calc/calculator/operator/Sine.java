@@ -21,6 +21,7 @@
  */
 package net.sf.intelliplugin.calc.calculator.operator;
 
+import net.sf.intelliplugin.calc.calculator.BigMath;
 import net.sf.intelliplugin.calc.calculator.Operator;
 import org.jetbrains.annotations.NotNull;
 
@@ -39,6 +40,6 @@ public class Sine extends Operator {
 
     @NotNull
     protected BigDecimal doExecute(BigDecimal... values) {
-        return new BigDecimal(String.valueOf(StrictMath.sin(values[0].doubleValue())));
+        return BigMath.sin(values[0]);
     }
 }
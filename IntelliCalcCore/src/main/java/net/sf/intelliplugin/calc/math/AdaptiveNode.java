@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Evaluates an expression for {@link EvaluationMode#ADAPTIVE}: on intervals of doubles first, and on BigDecimal with
+ * increasing precision only when the interval is too wide to guarantee the requested number of digits.
+ * <p/>
+ * The interval encloses the exact value of the expression, so when both of its bounds round to the same number of
+ * significant digits, the exact value rounds to that number as well. Otherwise the expression is evaluated on
+ * BigDecimal with divisions rounded to a few more digits than requested, and again with twice the precision, until
+ * two successive results agree on the requested digits. An exact result of zero can only be approached, it is assumed
+ * when the results are still tiny and disagreeing at the maximum precision.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class AdaptiveNode implements CompiledNode {
+
+    /**
+     * The number of digits the first decimal evaluation computes more than requested.
+     */
+    private static final int GUARD_DIGITS = 10;
+
+    /**
+     * The precision beyond which the decimal evaluation is not escalated any further.
+     */
+    private static final int MAXIMUM_PRECISION = 1000;
+
+    /**
+     * A result not agreeing with the previous one at the maximum precision while being smaller than this is zero.
+     */
+    private static final BigDecimal NEGLIGIBLE = BigDecimal.ONE.scaleByPowerOfTen(-MAXIMUM_PRECISION / 2);
+
+    private final Map<String, BigDecimal> constants;
+    private final Node tree;
+    private final Variables variables;
+    private final MathContext context;
+    private final CompiledInterval intervals;
+    private final CompiledNode[] decimals;
+
+    /**
+     * @param constants the special constants known by the evaluator
+     * @param tree      the parse tree to evaluate
+     * @param variables the slots of the variables of the tree
+     * @param digits    the number of significant digits of the result
+     * @throws MathException if the tree contains an unknown operator
+     */
+    AdaptiveNode(Map<String, BigDecimal> constants, Node tree, Variables variables, int digits)
+            throws MathException {
+        this.constants = constants;
+        this.tree = tree;
+        this.variables = variables;
+        this.context = new MathContext(digits, RoundingMode.HALF_EVEN);
+        this.intervals = new IntervalCompiler(constants).compile(tree, variables);
+
+        int levels = 1;
+        for (int precision = digits + GUARD_DIGITS; precision < MAXIMUM_PRECISION; precision *= 2) {
+            levels++;
+        }
+        this.decimals = new CompiledNode[levels];
+    }
+
+    @Override
+    public BigDecimal evaluate(Scope scope) throws MathException {
+        BigDecimal value = intervals.evaluate(scope).round(context);
+        if (value != null) {
+            return normalize(value);
+        }
+
+        BigDecimal previous = decimal(0).evaluate(scope.restart());
+        for (int level = 1; level < decimals.length && previous != null; level++) {
+            BigDecimal next = decimal(level).evaluate(scope.restart());
+            if (next == null || next.round(context).compareTo(previous.round(context)) == 0) {
+                return next == null ? null : normalize(next.round(context));
+            }
+            previous = next;
+        }
+
+        if (previous == null) {
+            return null;
+        } else if (previous.abs().compareTo(NEGLIGIBLE) < 0) {
+            // a result which keeps shrinking as the precision grows cancels out to zero
+            return BigDecimal.ZERO;
+        }
+        return normalize(previous.round(context));
+    }
+
+    /**
+     * @param level the number of times the precision was doubled
+     * @return the expression compiled to divide with the precision of the level, compiled when first needed
+     * @throws MathException if the tree contains an unknown operator
+     */
+    private synchronized CompiledNode decimal(int level) throws MathException {
+        CompiledNode node = decimals[level];
+        if (node == null) {
+            int precision = Math.min((context.getPrecision() + GUARD_DIGITS) << level, MAXIMUM_PRECISION);
+            node = new Compiler(constants, new MathContext(precision, RoundingMode.HALF_EVEN)).compile(tree, variables);
+            decimals[level] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Removes the trailing zeros of the fraction, the rounded value is not more precise than the requested digits.
+     *
+     * @param value the rounded value
+     * @return the value without trailing zeros in its fraction
+     */
+    private static BigDecimal normalize(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+}
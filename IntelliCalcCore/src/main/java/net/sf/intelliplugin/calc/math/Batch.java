@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The state of a single columnar evaluation: the variable columns, the block of rows being computed and a buffer per
+ * node of the compiled expression. A batch is used by a single thread.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Batch {
+
+    private final Map<String, ?> columns;
+    private final double[][] doubles;
+    private final BigDecimal[][] decimals;
+    private final int[][] selections;
+    private final int[] computed;
+    private int block;
+    private int offset;
+    private int length;
+
+    /**
+     * @param columns the variable columns, either <code>double[]</code> or <code>BigDecimal[]</code>
+     * @param nodes   the number of nodes of the compiled expression
+     */
+    Batch(Map<String, ?> columns, int nodes) {
+        this.columns = columns;
+        this.doubles = new double[nodes][];
+        this.decimals = new BigDecimal[nodes][];
+        this.selections = new int[nodes][];
+        this.computed = new int[nodes];
+    }
+
+    /**
+     * Moves to the next block of rows.
+     *
+     * @param offset the first row of the block
+     * @param length the number of rows in the block, at most {@link ColumnCompiler#BLOCK_SIZE}
+     */
+    void start(int offset, int length) {
+        this.block++;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * @return the first row of the current block
+     */
+    int offset() {
+        return offset;
+    }
+
+    /**
+     * @return the number of rows in the current block
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return the column holding the values of the variable
+     * @throws MathException if there is no column for the variable
+     */
+    Object column(String name) throws MathException {
+        Object column = columns.get(name);
+        if (column == null) {
+            throw new MathException("No value associated with " + name);
+        }
+        return column;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the double buffer of the node
+     */
+    double[] doubles(int node) {
+        double[] buffer = doubles[node];
+        if (buffer == null) {
+            buffer = new double[ColumnCompiler.BLOCK_SIZE];
+            doubles[node] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * @param node  the index of a constant node
+     * @param value the value of the constant
+     * @return the double buffer of the node, filled with the constant
+     */
+    double[] constant(int node, double value) {
+        double[] buffer = doubles[node];
+        if (buffer == null) {
+            buffer = new double[ColumnCompiler.BLOCK_SIZE];
+            Arrays.fill(buffer, value);
+            doubles[node] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the BigDecimal buffer of the node
+     */
+    BigDecimal[] decimals(int node) {
+        BigDecimal[] buffer = decimals[node];
+        if (buffer == null) {
+            buffer = new BigDecimal[ColumnCompiler.BLOCK_SIZE];
+            decimals[node] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the buffer of the node for selecting rows of the current block
+     */
+    int[] selection(int node) {
+        int[] buffer = selections[node];
+        if (buffer == null) {
+            buffer = new int[ColumnCompiler.BLOCK_SIZE];
+            selections[node] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Creates a batch over some of the rows of the current block, used to compute an operand only for the rows that
+     * need it. The new batch holds a copy of the selected rows of every column, and has buffers of its own.
+     *
+     * @param rows  the selected rows, relative to the offset of the current block
+     * @param count the number of selected rows
+     * @return a batch with a single block holding the selected rows
+     */
+    Batch select(int[] rows, int count) {
+        Map<String, Object> selected = new HashMap<>();
+        for (Map.Entry<String, ?> entry : columns.entrySet()) {
+            Object column = entry.getValue();
+            if (column instanceof double[]) {
+                double[] values = (double[]) column;
+                double[] copy = new double[count];
+                for (int i = 0; i < count; i++) {
+                    copy[i] = values[offset + rows[i]];
+                }
+                selected.put(entry.getKey(), copy);
+            } else if (column instanceof BigDecimal[]) {
+                BigDecimal[] values = (BigDecimal[]) column;
+                BigDecimal[] copy = new BigDecimal[count];
+                for (int i = 0; i < count; i++) {
+                    copy[i] = values[offset + rows[i]];
+                }
+                selected.put(entry.getKey(), copy);
+            }
+        }
+
+        Batch batch = new Batch(selected, computed.length);
+        batch.start(0, count);
+        return batch;
+    }
+
+    /**
+     * @param node  the index of a constant node
+     * @param value the value of the constant
+     * @return the BigDecimal buffer of the node, filled with the constant
+     */
+    BigDecimal[] constant(int node, BigDecimal value) {
+        BigDecimal[] buffer = decimals[node];
+        if (buffer == null) {
+            buffer = new BigDecimal[ColumnCompiler.BLOCK_SIZE];
+            Arrays.fill(buffer, value);
+            decimals[node] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Computes the values of a shared node once per block.
+     *
+     * @param node   the index of the node
+     * @param column computes the values of the node
+     * @return the buffer holding the values of the node
+     * @throws MathException if the node can not be evaluated
+     */
+    double[] memoizeDoubles(int node, DoubleColumn column) throws MathException {
+        if (computed[node] != block) {
+            column.evaluate(this);
+            computed[node] = block;
+        }
+        return doubles[node];
+    }
+
+    /**
+     * Computes the values of a shared node once per block.
+     *
+     * @param node   the index of the node
+     * @param column computes the values of the node
+     * @return the buffer holding the values of the node
+     * @throws MathException if the node can not be evaluated
+     */
+    BigDecimal[] memoizeDecimals(int node, DecimalColumn column) throws MathException {
+        if (computed[node] != block) {
+            column.evaluate(this);
+            computed[node] = block;
+        }
+        return decimals[node];
+    }
+}
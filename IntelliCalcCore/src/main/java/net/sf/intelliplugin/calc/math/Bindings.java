@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Variable=value pairs used to evaluate expressions.
+ * <p/>
+ * A value is either a number or an expression which may refer to other variables. Each expression is parsed once,
+ * when its variable is first needed, and the value of every variable is kept until the variable, or one of the
+ * variables it depends on, is changed. Evaluating <code>x*x*x</code> with <code>x=sqrt(y)+1</code> therefore parses and
+ * computes <code>x</code> only once.
+ * <p/>
+ * Example:
+ * <pre>
+ *   Eval e = new Eval();
+ *   Bindings bindings = new Bindings(e);
+ *   bindings.set("y", "2.34");
+ *   bindings.set("x", "sqrt(y)+1");
+ *   System.out.println(e.eval("x*x*x", bindings));
+ * </pre>
+ * Bindings are not thread safe, use one instance per thread.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+public final class Bindings {
+
+    private final Eval eval;
+    private final Map<String, String> definitions;
+    private final Map<String, CompiledNode> compiled = new HashMap<>();
+    private final Map<String, BigDecimal> values = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private final Set<String> evaluating = new HashSet<>();
+
+    /**
+     * Creates empty bindings.
+     *
+     * @param eval the evaluator used to parse the values
+     */
+    public Bindings(Eval eval) {
+        this(eval, new LinkedHashMap<>());
+    }
+
+    /**
+     * Creates bindings on top of a map of variable=value pairs. The map is not copied and should not be changed while
+     * the bindings are in use.
+     *
+     * @param eval        the evaluator used to parse the values
+     * @param definitions the variable=value pairs
+     */
+    Bindings(Eval eval, Map<String, String> definitions) {
+        this.eval = eval;
+        this.definitions = definitions;
+    }
+
+    /**
+     * Sets the value of a variable. The value is parsed when the variable is first used.
+     *
+     * @param name  the name of the variable
+     * @param value a number or an expression
+     */
+    public void set(String name, String value) {
+        definitions.put(name, value);
+        invalidate(name);
+    }
+
+    /**
+     * Removes a variable.
+     *
+     * @param name the name of the variable
+     */
+    public void remove(String name) {
+        definitions.remove(name);
+        invalidate(name);
+    }
+
+    /**
+     * Removes all variables.
+     */
+    public void clear() {
+        definitions.clear();
+        compiled.clear();
+        values.clear();
+        dependents.clear();
+    }
+
+    /**
+     * @param name the name of the variable
+     * @return the value of the variable as it was set, or null if the variable has no value
+     */
+    public String get(String name) {
+        return definitions.get(name);
+    }
+
+    /**
+     * @return the names of all variables, in the order they were first set
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(definitions.keySet());
+    }
+
+    /**
+     * Computes the value of a variable, or returns the value computed before if neither the variable nor its
+     * dependencies changed since.
+     *
+     * @param name the name of the variable
+     * @return the value of the variable
+     * @throws MathException if the variable has no value, its value can not be evaluated or the variable is defined in
+     *                       terms of itself
+     */
+    BigDecimal value(String name) throws MathException {
+        BigDecimal value = values.get(name);
+        if (value != null) {
+            return value;
+        }
+
+        String definition = definitions.get(name);
+        if (definition == null) {
+            throw new MathException("No value associated with " + name);
+        } else if (eval.isConstant(definition)) {
+            value = new BigDecimal(definition);
+        } else {
+            if (!evaluating.add(name)) {
+                throw new MathException("Circular definition of " + name);
+            }
+            try {
+                value = compile(name, definition).evaluate(new Scope(this));
+            } finally {
+                evaluating.remove(name);
+            }
+        }
+
+        values.put(name, value);
+        return value;
+    }
+
+    private CompiledNode compile(String name, String definition) throws MathException {
+        CompiledNode node = compiled.get(name);
+        if (node == null) {
+            FlatTree tree = eval.parse(definition);
+            node = eval.compile(tree);
+            compiled.put(name, node);
+
+            for (String variable : tree.variables()) {
+                dependents.computeIfAbsent(variable, key -> new HashSet<>()).add(name);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Forgets the compiled value of a variable and the computed values of the variable and all variables depending on
+     * it.
+     *
+     * @param name the name of the changed variable
+     */
+    private void invalidate(String name) {
+        compiled.remove(name);
+
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(name);
+        while (!pending.isEmpty()) {
+            String next = pending.pop();
+            if (visited.add(next)) {
+                values.remove(next);
+                pending.addAll(dependents.getOrDefault(next, Collections.emptySet()));
+            }
+        }
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compiles a tree of {@link Node}s for columnar evaluation: every operator is applied to a whole block of rows before
+ * the next operator is applied, so the work is done in short, tight loops over arrays.
+ * <p/>
+ * Evaluation on doubles follows {@link EvaluationMode#DOUBLE}, except that comparisons are always done on doubles.
+ * The right operand of <code>&amp;&amp;</code> and <code>||</code> is only computed for the rows where the left operand
+ * does not decide the result, so a guard like <code>y!=0 &amp;&amp; x/y&gt;1</code> works as it does for a single row.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class ColumnCompiler {
+
+    /**
+     * The number of rows computed at once.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    private static final double DEG_TO_RAD = StrictMath.PI / 180;
+    private static final double RAD_TO_DEG = 180 / StrictMath.PI;
+
+    private final Map<String, BigDecimal> constants;
+
+    /**
+     * @param constants the special constants known by the evaluator
+     */
+    ColumnCompiler(Map<String, BigDecimal> constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * @param tree the parse tree to compile
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    ColumnProgram compile(Node tree) throws MathException {
+        Map<Node, Integer> references = Compiler.references(tree);
+        Map<Node, DoubleColumn> doubles = new IdentityHashMap<>();
+        Map<Node, DecimalColumn> decimals = new IdentityHashMap<>();
+        Map<Node, Integer> indices = new IdentityHashMap<>();
+
+        DoubleColumn doubleRoot = compileDouble(tree, references, doubles, indices);
+        DecimalColumn decimalRoot = compileDecimal(tree, references, decimals, indices);
+        return new ColumnProgram(doubleRoot, decimalRoot, indices.size());
+    }
+
+    private static int index(Node tree, Map<Node, Integer> indices) {
+        return indices.computeIfAbsent(tree, node -> indices.size());
+    }
+
+    private DoubleColumn compileDouble(Node tree, Map<Node, Integer> references, Map<Node, DoubleColumn> compiled,
+                                       Map<Node, Integer> indices) throws MathException {
+        DoubleColumn column = compiled.get(tree);
+        if (column != null) {
+            return column;
+        }
+
+        int index = index(tree, indices);
+        switch (tree.getType()) {
+            case CONSTANT:
+                double value = DoubleCompiler.toDouble(tree.getValue());
+                column = batch -> batch.constant(index, value);
+                break;
+            case VARIABLE:
+                String name = tree.getVariable();
+                if (constants.containsKey(name)) {
+                    double constant = name.equals("infinity")
+                            ? Double.POSITIVE_INFINITY : DoubleCompiler.toDouble(constants.get(name));
+                    column = batch -> batch.constant(index, constant);
+                } else {
+                    column = batch -> variable(batch, index, name);
+                }
+                break;
+            default:
+                DoubleColumn arg1 = compileDouble(tree.arg1(), references, compiled, indices);
+                if (tree.arguments() == 2) {
+                    DoubleColumn arg2 = compileDouble(tree.arg2(), references, compiled, indices);
+                    column = binary(index, tree.getOpcode(), arg1, arg2);
+                } else {
+                    column = unary(index, tree.getOpcode(), arg1);
+                }
+                if (references.getOrDefault(tree, 0) > 1) {
+                    DoubleColumn shared = column;
+                    column = batch -> batch.memoizeDoubles(index, shared);
+                }
+        }
+
+        compiled.put(tree, column);
+        return column;
+    }
+
+    private DecimalColumn compileDecimal(Node tree, Map<Node, Integer> references, Map<Node, DecimalColumn> compiled,
+                                         Map<Node, Integer> indices) throws MathException {
+        DecimalColumn column = compiled.get(tree);
+        if (column != null) {
+            return column;
+        }
+
+        int index = index(tree, indices);
+        switch (tree.getType()) {
+            case CONSTANT:
+                BigDecimal value = tree.getValue();
+                column = batch -> batch.constant(index, value);
+                break;
+            case VARIABLE:
+                String name = tree.getVariable();
+                if (constants.containsKey(name)) {
+                    BigDecimal constant = constants.get(name);
+                    column = batch -> batch.constant(index, constant);
+                } else {
+                    column = batch -> decimalVariable(batch, index, name);
+                }
+                break;
+            default:
+                DecimalColumn arg1 = compileDecimal(tree.arg1(), references, compiled, indices);
+                if (tree.getOpcode() == Opcode.AND || tree.getOpcode() == Opcode.OR) {
+                    DecimalColumn arg2 = compileDecimal(tree.arg2(), references, compiled, indices);
+                    column = decimalLogical(index, tree.getOpcode() == Opcode.AND, arg1, arg2);
+                } else if (tree.arguments() == 2) {
+                    DecimalColumn arg2 = compileDecimal(tree.arg2(), references, compiled, indices);
+                    BinaryOperator<BigDecimal> operation = Compiler.binaryOperation(tree.getOpcode());
+                    if (operation == null) {
+                        throw new MathException("Unknown operator");
+                    }
+                    column = batch -> {
+                        BigDecimal[] a = arg1.evaluate(batch);
+                        BigDecimal[] b = arg2.evaluate(batch);
+                        BigDecimal[] result = batch.decimals(index);
+                        for (int i = 0, n = batch.length(); i < n; i++) {
+                            result[i] = operation.apply(a[i], b[i]);
+                        }
+                        return result;
+                    };
+                } else {
+                    UnaryOperator<BigDecimal> operation = Compiler.unaryOperation(tree.getOpcode());
+                    if (operation == null) {
+                        throw new MathException("Unknown operator");
+                    }
+                    column = batch -> {
+                        BigDecimal[] a = arg1.evaluate(batch);
+                        BigDecimal[] result = batch.decimals(index);
+                        for (int i = 0, n = batch.length(); i < n; i++) {
+                            result[i] = operation.apply(a[i]);
+                        }
+                        return result;
+                    };
+                }
+                if (references.getOrDefault(tree, 0) > 1) {
+                    DecimalColumn shared = column;
+                    column = batch -> batch.memoizeDecimals(index, shared);
+                }
+        }
+
+        compiled.put(tree, column);
+        return column;
+    }
+
+    private static double[] variable(Batch batch, int index, String name) throws MathException {
+        Object column = batch.column(name);
+        double[] result = batch.doubles(index);
+        int offset = batch.offset();
+        int length = batch.length();
+        if (column instanceof double[]) {
+            System.arraycopy((double[]) column, offset, result, 0, length);
+        } else {
+            BigDecimal[] values = (BigDecimal[]) column;
+            for (int i = 0; i < length; i++) {
+                result[i] = DoubleCompiler.toDouble(values[offset + i]);
+            }
+        }
+        return result;
+    }
+
+    private static BigDecimal[] decimalVariable(Batch batch, int index, String name) throws MathException {
+        Object column = batch.column(name);
+        BigDecimal[] result = batch.decimals(index);
+        int offset = batch.offset();
+        int length = batch.length();
+        if (column instanceof BigDecimal[]) {
+            System.arraycopy((BigDecimal[]) column, offset, result, 0, length);
+        } else {
+            double[] values = (double[]) column;
+            for (int i = 0; i < length; i++) {
+                result[i] = DoubleCompiler.toDecimal(values[offset + i]);
+            }
+        }
+        return result;
+    }
+
+    private static DoubleColumn binary(int index, Opcode op, DoubleColumn arg1, DoubleColumn arg2)
+            throws MathException {
+        if (op == null) {
+            throw new MathException("Unknown operator");
+        }
+        switch (op) {
+            case AND:
+                return logical(index, true, arg1, arg2);
+            case OR:
+                return logical(index, false, arg1, arg2);
+            case ADD:
+                return batch -> {
+                    double[] a = arg1.evaluate(batch);
+                    double[] b = arg2.evaluate(batch);
+                    double[] result = batch.doubles(index);
+                    for (int i = 0, n = batch.length(); i < n; i++) {
+                        result[i] = a[i] + b[i];
+                    }
+                    return result;
+                };
+            case SUBTRACT:
+                return batch -> {
+                    double[] a = arg1.evaluate(batch);
+                    double[] b = arg2.evaluate(batch);
+                    double[] result = batch.doubles(index);
+                    for (int i = 0, n = batch.length(); i < n; i++) {
+                        result[i] = a[i] - b[i];
+                    }
+                    return result;
+                };
+            case MULTIPLY:
+                return batch -> {
+                    double[] a = arg1.evaluate(batch);
+                    double[] b = arg2.evaluate(batch);
+                    double[] result = batch.doubles(index);
+                    for (int i = 0, n = batch.length(); i < n; i++) {
+                        result[i] = a[i] * b[i];
+                    }
+                    return result;
+                };
+            case DIVIDE:
+                return batch -> {
+                    double[] a = arg1.evaluate(batch);
+                    double[] b = arg2.evaluate(batch);
+                    double[] result = batch.doubles(index);
+                    for (int i = 0, n = batch.length(); i < n; i++) {
+                        result[i] = a[i] / b[i];
+                    }
+                    return result;
+                };
+        }
+
+        DoubleBinaryOperator operation = binaryOperation(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return batch -> {
+            double[] a = arg1.evaluate(batch);
+            double[] b = arg2.evaluate(batch);
+            double[] result = batch.doubles(index);
+            for (int i = 0, n = batch.length(); i < n; i++) {
+                result[i] = operation.applyAsDouble(a[i], b[i]);
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Compiles <code>&amp;&amp;</code> or <code>||</code>. The right operand is computed on a batch of the rows where
+     * the left operand is true for <code>&amp;&amp;</code>, or not true for <code>||</code>.
+     *
+     * @param index the index of the node
+     * @param and   true for <code>&amp;&amp;</code>, false for <code>||</code>
+     * @param arg1  the left operand
+     * @param arg2  the right operand
+     * @return the compiled node
+     */
+    private static DoubleColumn logical(int index, boolean and, DoubleColumn arg1, DoubleColumn arg2) {
+        return batch -> {
+            double[] a = arg1.evaluate(batch);
+            double[] result = batch.doubles(index);
+            int[] rows = batch.selection(index);
+            int n = batch.length();
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if ((a[i] == 1) == and) {
+                    rows[count++] = i;
+                } else {
+                    result[i] = bool(!and);
+                }
+            }
+
+            if (count == n) {
+                double[] b = arg2.evaluate(batch);
+                for (int i = 0; i < n; i++) {
+                    result[i] = bool(b[i] == 1);
+                }
+            } else if (count > 0) {
+                double[] b = arg2.evaluate(batch.select(rows, count));
+                for (int i = 0; i < count; i++) {
+                    result[rows[i]] = bool(b[i] == 1);
+                }
+            }
+            return result;
+        };
+    }
+
+    /**
+     * Compiles <code>&amp;&amp;</code> or <code>||</code> on BigDecimals, like {@link #logical}.
+     *
+     * @param index the index of the node
+     * @param and   true for <code>&amp;&amp;</code>, false for <code>||</code>
+     * @param arg1  the left operand
+     * @param arg2  the right operand
+     * @return the compiled node
+     */
+    private static DecimalColumn decimalLogical(int index, boolean and, DecimalColumn arg1, DecimalColumn arg2) {
+        return batch -> {
+            BigDecimal[] a = arg1.evaluate(batch);
+            BigDecimal[] result = batch.decimals(index);
+            int[] rows = batch.selection(index);
+            int n = batch.length();
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                if (isTrue(a[i]) == and) {
+                    rows[count++] = i;
+                } else {
+                    result[i] = and ? BigMath.FALSE : BigMath.TRUE;
+                }
+            }
+
+            if (count == n) {
+                BigDecimal[] b = arg2.evaluate(batch);
+                for (int i = 0; i < n; i++) {
+                    result[i] = isTrue(b[i]) ? BigMath.TRUE : BigMath.FALSE;
+                }
+            } else if (count > 0) {
+                BigDecimal[] b = arg2.evaluate(batch.select(rows, count));
+                for (int i = 0; i < count; i++) {
+                    result[rows[i]] = isTrue(b[i]) ? BigMath.TRUE : BigMath.FALSE;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static DoubleColumn unary(int index, Opcode op, DoubleColumn arg) throws MathException {
+        DoubleUnaryOperator operation = unaryOperation(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return batch -> {
+            double[] a = arg.evaluate(batch);
+            double[] result = batch.doubles(index);
+            for (int i = 0, n = batch.length(); i < n; i++) {
+                result[i] = operation.applyAsDouble(a[i]);
+            }
+            return result;
+        };
+    }
+
+    private static DoubleBinaryOperator binaryOperation(Opcode op) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case POWER:
+                return StrictMath::pow;
+            case LOG:
+                return (a, b) -> StrictMath.log(a) / StrictMath.log(b);
+            case REMAINDER:
+                return DoubleCompiler::remainder;
+            case EQUAL:
+                return (a, b) -> compare(a, b, a == b);
+            case NOT_EQUAL:
+                return (a, b) -> compare(a, b, a != b);
+            case LESS:
+                return (a, b) -> compare(a, b, a < b);
+            case GREATER:
+                return (a, b) -> compare(a, b, a > b);
+            case GREATER_OR_EQUAL:
+                return (a, b) -> compare(a, b, a >= b);
+            case LESS_OR_EQUAL:
+                return (a, b) -> compare(a, b, a <= b);
+            default:
+                return null;
+        }
+    }
+
+    private static DoubleUnaryOperator unaryOperation(Opcode op) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case SQRT:
+                return Math::sqrt;
+            case SIN:
+                return StrictMath::sin;
+            case COS:
+                return StrictMath::cos;
+            case TAN:
+                return StrictMath::tan;
+            case ASIN:
+                return StrictMath::asin;
+            case ACOS:
+                return StrictMath::acos;
+            case ATAN:
+                return StrictMath::atan;
+            case LN:
+                return StrictMath::log;
+            case EXP:
+                return StrictMath::exp;
+            case COTAN:
+                return a -> 1 / StrictMath.tan(a);
+            case ACOTAN:
+                return a -> StrictMath.atan(1 / a);
+            case CEIL:
+                return StrictMath::ceil;
+            case ROUND:
+                return StrictMath::round;
+            case FLOOR:
+                return StrictMath::floor;
+            case FAC:
+                return a -> DoubleCompiler.exactly(BigMath::fac, a);
+            case ABS:
+                return Math::abs;
+            case FPART:
+                return a -> a - (a >= 0 ? StrictMath.floor(a) : StrictMath.ceil(a));
+            case SFAC:
+                return a -> DoubleCompiler.exactly(BigMath::sfac, a);
+            case SINH:
+                return StrictMath::sinh;
+            case COSH:
+                return StrictMath::cosh;
+            case TANH:
+                return StrictMath::tanh;
+            case NOT:
+                return a -> bool(a != 1);
+            case DEG2RAD:
+                return a -> a * DEG_TO_RAD;
+            case DEG2GRAD:
+                return a -> a * 200 / 180;
+            case RAD2DEG:
+                return a -> a * RAD_TO_DEG;
+            case RAD2GRAD:
+                return a -> a * 200 / StrictMath.PI;
+            case GRAD2DEG:
+                return a -> a * 180 / 200;
+            case GRAD2RAD:
+                return a -> a * StrictMath.PI / 200;
+            default:
+                return null;
+        }
+    }
+
+    private static double compare(double a, double b, boolean result) {
+        return Double.isNaN(a) || Double.isNaN(b) ? Double.NaN : bool(result);
+    }
+
+    private static double bool(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    private static boolean isTrue(BigDecimal value) {
+        return value.compareTo(BigMath.TRUE) == 0;
+    }
+}
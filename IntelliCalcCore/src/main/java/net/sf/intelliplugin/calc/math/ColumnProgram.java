@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * An expression compiled for columnar evaluation by the {@link ColumnCompiler}.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class ColumnProgram {
+
+    private final DoubleColumn doubleRoot;
+    private final DecimalColumn decimalRoot;
+    private final int nodes;
+
+    /**
+     * @param doubleRoot  the root of the expression compiled for doubles
+     * @param decimalRoot the root of the expression compiled for BigDecimals
+     * @param nodes       the number of nodes of the expression
+     */
+    ColumnProgram(DoubleColumn doubleRoot, DecimalColumn decimalRoot, int nodes) {
+        this.doubleRoot = doubleRoot;
+        this.decimalRoot = decimalRoot;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Computes the rows <code>from</code> up to <code>to</code> on doubles.
+     *
+     * @param columns the variable columns
+     * @param result  the column receiving the results
+     * @param from    the first row to compute
+     * @param to      the row after the last row to compute
+     * @throws MathException if the expression can not be evaluated
+     */
+    void evaluate(Map<String, ?> columns, double[] result, int from, int to) throws MathException {
+        Batch batch = new Batch(columns, nodes);
+        for (int offset = from; offset < to; offset += ColumnCompiler.BLOCK_SIZE) {
+            int length = Math.min(ColumnCompiler.BLOCK_SIZE, to - offset);
+            batch.start(offset, length);
+            System.arraycopy(doubleRoot.evaluate(batch), 0, result, offset, length);
+        }
+    }
+
+    /**
+     * Computes the rows <code>from</code> up to <code>to</code> on BigDecimals.
+     *
+     * @param columns the variable columns
+     * @param result  the column receiving the results
+     * @param from    the first row to compute
+     * @param to      the row after the last row to compute
+     * @throws MathException if the expression can not be evaluated
+     */
+    void evaluate(Map<String, ?> columns, BigDecimal[] result, int from, int to) throws MathException {
+        Batch batch = new Batch(columns, nodes);
+        for (int offset = from; offset < to; offset += ColumnCompiler.BLOCK_SIZE) {
+            int length = Math.min(ColumnCompiler.BLOCK_SIZE, to - offset);
+            batch.start(offset, length);
+            System.arraycopy(decimalRoot.evaluate(batch), 0, result, offset, length);
+        }
+    }
+}
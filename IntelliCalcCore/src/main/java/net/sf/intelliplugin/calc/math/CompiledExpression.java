@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * An expression compiled by {@link Eval#compile(String)}. A compiled expression can be evaluated many times, with
+ * different variable values, without parsing the expression again and without dispatching on operator names.
+ * <p/>
+ * Example:
+ * <pre>
+ *   CompiledExpression expression = new Eval().compile("cos(x+y)");
+ *   Map&lt;String, String&gt; values = new HashMap&lt;&gt;();
+ *   for (int i = 0; i &lt; 100; i++) {
+ *       values.put("x", String.valueOf(i));
+ *       values.put("y", "2.34");
+ *       System.out.println(expression.evaluate(values));
+ *   }
+ * </pre>
+ * The fastest way to evaluate a compiled expression repeatedly is to pass the variable values in an array, ordered
+ * like {@link #getVariables()}, which avoids looking up the variables by name:
+ * <pre>
+ *   CompiledExpression expression = new Eval().compile("cos(x+y)");
+ *   int x = expression.getSlot("x");
+ *   BigDecimal[] values = new BigDecimal[expression.getVariables().size()];
+ *   values[expression.getSlot("y")] = new BigDecimal("2.34");
+ *   for (int i = 0; i &lt; 100; i++) {
+ *       values[x] = BigDecimal.valueOf(i);
+ *       System.out.println(expression.evaluate(values));
+ *   }
+ * </pre>
+ * An expression compiled for {@link EvaluationMode#DOUBLE} evaluates on primitive doubles, use
+ * {@link #evaluateDouble(Bindings)} to get the result without creating a BigDecimal. An expression compiled for
+ * {@link EvaluationMode#ADAPTIVE} results in the guaranteed digits only.
+ * <p/>
+ * A compiled expression is immutable, it can be shared and evaluated concurrently from multiple threads.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+public final class CompiledExpression {
+
+    private final Eval eval;
+    private final String expression;
+    private final EvaluationMode mode;
+    private final CompiledNode decimalRoot;
+    private final CompiledDouble doubleRoot;
+    private final FlatTree tree;
+    private final Variables variables;
+    private volatile ColumnProgram columnProgram;
+
+    /**
+     * @param eval       the evaluator which compiled the expression
+     * @param expression the normalized expression
+     * @param tree       the parse tree of the expression
+     * @param variables  the slots of the variables of the expression
+     * @param mode       {@link EvaluationMode#DECIMAL} or {@link EvaluationMode#ADAPTIVE}
+     * @param root       the compiled expression tree
+     */
+    CompiledExpression(Eval eval, String expression, FlatTree tree, Variables variables, EvaluationMode mode,
+                       CompiledNode root) {
+        this(eval, expression, tree, variables, mode, root, null);
+    }
+
+    /**
+     * @param eval       the evaluator which compiled the expression
+     * @param expression the normalized expression
+     * @param tree       the parse tree of the expression
+     * @param variables  the slots of the variables of the expression
+     * @param root       the expression tree compiled for {@link EvaluationMode#DOUBLE}
+     */
+    CompiledExpression(Eval eval, String expression, FlatTree tree, Variables variables, CompiledDouble root) {
+        this(eval, expression, tree, variables, EvaluationMode.DOUBLE, null, root);
+    }
+
+    private CompiledExpression(Eval eval, String expression, FlatTree tree, Variables variables, EvaluationMode mode,
+                               CompiledNode decimalRoot, CompiledDouble doubleRoot) {
+        this.eval = eval;
+        this.expression = expression;
+        this.tree = tree;
+        this.variables = variables;
+        this.mode = mode;
+        this.decimalRoot = decimalRoot;
+        this.doubleRoot = doubleRoot;
+    }
+
+    /**
+     * @return the expression, in lowercase and stripped of spaces
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    /**
+     * @return the arithmetic this expression is evaluated with
+     */
+    public EvaluationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return the names of the variables used by the expression, in the order in which they first appear. The index
+     * of a variable in this list is its slot in the value arrays of {@link #evaluate(BigDecimal...)} and
+     * {@link #evaluateDouble(double...)}.
+     */
+    public List<String> getVariables() {
+        return variables.names();
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return the slot of the variable in the value arrays, -1 if the expression does not use the variable
+     * @see #getVariables()
+     */
+    public int getSlot(String name) {
+        return variables.slot(name);
+    }
+
+    /**
+     * Evaluates an expression without variables.
+     *
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     */
+    public BigDecimal evaluate() throws MathException {
+        return evaluate(Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates the expression using the values in the map.
+     *
+     * @param values map with variable value pairs
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     */
+    public BigDecimal evaluate(Map<String, String> values) throws MathException {
+        return evaluate(new Bindings(eval, values));
+    }
+
+    /**
+     * Evaluates the expression using the variable values of the bindings.
+     *
+     * @param bindings the variable=value pairs
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails, or when an expression evaluated on doubles
+     *                       results in NaN or infinity
+     */
+    public BigDecimal evaluate(Bindings bindings) throws MathException {
+        if (mode == EvaluationMode.DOUBLE) {
+            double value = evaluateDouble(bindings);
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new MathException("Evaluation failed, result is " + value);
+            }
+            return BigDecimal.valueOf(value);
+        }
+
+        try {
+            return decimalRoot.evaluate(new Scope(bindings));
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression using variable values indexed by slot. The variables are not looked up by name, which
+     * makes this the cheapest way to evaluate an expression many times with changing values.
+     *
+     * @param values the value of every variable, indexed by slot
+     * @return a BigDecimal value
+     * @throws MathException            when evaluation of the expression fails, or when an expression evaluated on
+     *                                  doubles results in NaN or infinity
+     * @throws IllegalArgumentException if fewer values than variables are given
+     * @see #getVariables()
+     */
+    public BigDecimal evaluate(BigDecimal... values) throws MathException {
+        checkValues(values.length);
+
+        if (mode == EvaluationMode.DOUBLE) {
+            double value = evaluateDouble(new Scope(variables, values));
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new MathException("Evaluation failed, result is " + value);
+            }
+            return BigDecimal.valueOf(value);
+        }
+
+        try {
+            return decimalRoot.evaluate(new Scope(variables, values));
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression to a primitive double using variable values indexed by slot. An expression compiled
+     * for {@link EvaluationMode#DOUBLE} is evaluated without creating BigDecimals.
+     *
+     * @param values the value of every variable, indexed by slot
+     * @return a double value, NaN if the result is not a number
+     * @throws MathException            when evaluation of the expression fails
+     * @throws IllegalArgumentException if fewer values than variables are given
+     * @see #getVariables()
+     */
+    public double evaluateDouble(double... values) throws MathException {
+        checkValues(values.length);
+        return evaluateDouble(new Scope(variables, values));
+    }
+
+    private void checkValues(int count) {
+        if (count < variables.size()) {
+            throw new IllegalArgumentException("Expression uses " + variables.size() + " variables, " + count
+                                               + " values given");
+        }
+    }
+
+    /**
+     * Evaluates the expression using the values in the map.
+     *
+     * @param values map with variable value pairs
+     * @return a double value
+     * @throws MathException when evaluation of the expression fails
+     * @see #evaluateDouble(Bindings)
+     */
+    public double evaluateDouble(Map<String, String> values) throws MathException {
+        return evaluateDouble(new Bindings(eval, values));
+    }
+
+    /**
+     * Evaluates the expression to a primitive double. An expression compiled for {@link EvaluationMode#DOUBLE} is
+     * evaluated without creating BigDecimals, other expressions are evaluated on BigDecimal and the result is
+     * converted.
+     *
+     * @param bindings the variable=value pairs
+     * @return a double value, NaN if the result is not a number
+     * @throws MathException when evaluation of the expression fails
+     */
+    public double evaluateDouble(Bindings bindings) throws MathException {
+        return evaluateDouble(new Scope(bindings));
+    }
+
+    private double evaluateDouble(Scope scope) throws MathException {
+        try {
+            if (mode == EvaluationMode.DOUBLE) {
+                return doubleRoot.evaluate(scope);
+            }
+            BigDecimal value = decimalRoot.evaluate(scope);
+            return value == null ? Double.NaN : value.doubleValue();
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression for every row of a table of variable values, on doubles. Every operator is applied to a
+     * block of rows at once, which is much faster than evaluating the rows one by one.
+     * <p/>
+     * Example:
+     * <pre>
+     *   Map&lt;String, double[]&gt; columns = new HashMap&lt;&gt;();
+     *   columns.put("x", new double[]{1, 2, 3});
+     *   columns.put("y", new double[]{4, 5, 6});
+     *   double[] result = new double[3];
+     *   new Eval().compile("sqrt(x^2+y^2)").evaluateBatch(columns, result);
+     * </pre>
+     * The rows are evaluated like {@link EvaluationMode#DOUBLE} evaluates a single row, except that comparisons are
+     * always done on doubles.
+     *
+     * @param columns the values of every variable, each column holding at least as many rows as the result
+     * @param result  the column receiving the value of the expression for every row
+     * @throws MathException            when evaluation of the expression fails
+     * @throws IllegalArgumentException if a column holds fewer rows than the result
+     */
+    public void evaluateBatch(Map<String, double[]> columns, double[] result) throws MathException {
+        for (Map.Entry<String, double[]> column : columns.entrySet()) {
+            checkRows(column.getKey(), column.getValue().length, result.length);
+        }
+
+        try {
+            columnProgram().evaluate(columns, result, 0, result.length);
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression for every row of a table of variable values, on BigDecimals. Every operator is applied
+     * to a block of rows at once.
+     *
+     * @param columns the values of every variable, each column holding at least as many rows as the result
+     * @param result  the column receiving the value of the expression for every row
+     * @throws MathException            when evaluation of the expression fails for any row
+     * @throws IllegalArgumentException if a column holds fewer rows than the result
+     * @see #evaluateBatch(Map, double[])
+     */
+    public void evaluateDecimalBatch(Map<String, BigDecimal[]> columns, BigDecimal[] result) throws MathException {
+        for (Map.Entry<String, BigDecimal[]> column : columns.entrySet()) {
+            checkRows(column.getKey(), column.getValue().length, result.length);
+        }
+
+        try {
+            columnProgram().evaluate(columns, result, 0, result.length);
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression for every row of a table of variable values, on doubles, splitting the rows over the
+     * threads of an executor. The result is exactly the same as the result of {@link #evaluateBatch(Map, double[])}.
+     * <p/>
+     * Example:
+     * <pre>
+     *   expression.evaluateBatch(columns, result, ForkJoinPool.commonPool());
+     * </pre>
+     *
+     * @param columns  the values of every variable, each column holding at least as many rows as the result
+     * @param result   the column receiving the value of the expression for every row
+     * @param executor the executor to evaluate with, a {@link java.util.concurrent.ForkJoinPool} splits the rows
+     *                 recursively
+     * @throws MathException            when evaluation of the expression fails
+     * @throws IllegalArgumentException if a column holds fewer rows than the result
+     */
+    public void evaluateBatch(Map<String, double[]> columns, double[] result, Executor executor)
+            throws MathException {
+        for (Map.Entry<String, double[]> column : columns.entrySet()) {
+            checkRows(column.getKey(), column.getValue().length, result.length);
+        }
+
+        try {
+            ColumnProgram program = columnProgram();
+            ParallelBatch.evaluate((from, to) -> program.evaluate(columns, result, from, to), result.length, executor);
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the expression for every row of a table of variable values, on BigDecimals, splitting the rows over
+     * the threads of an executor.
+     *
+     * @param columns  the values of every variable, each column holding at least as many rows as the result
+     * @param result   the column receiving the value of the expression for every row
+     * @param executor the executor to evaluate with
+     * @throws MathException            when evaluation of the expression fails for any row
+     * @throws IllegalArgumentException if a column holds fewer rows than the result
+     * @see #evaluateBatch(Map, double[], Executor)
+     */
+    public void evaluateDecimalBatch(Map<String, BigDecimal[]> columns, BigDecimal[] result, Executor executor)
+            throws MathException {
+        for (Map.Entry<String, BigDecimal[]> column : columns.entrySet()) {
+            checkRows(column.getKey(), column.getValue().length, result.length);
+        }
+
+        try {
+            ColumnProgram program = columnProgram();
+            ParallelBatch.evaluate((from, to) -> program.evaluate(columns, result, from, to), result.length, executor);
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    private static void checkRows(String name, int rows, int expected) {
+        if (rows < expected) {
+            throw new IllegalArgumentException("Column " + name + " has " + rows + " rows, " + expected + " expected");
+        }
+    }
+
+    /**
+     * @return the expression compiled for columnar evaluation, compiled when first needed
+     * @throws MathException if the expression contains an unknown operator
+     */
+    private ColumnProgram columnProgram() throws MathException {
+        ColumnProgram program = columnProgram;
+        if (program == null) {
+            program = eval.compileColumns(tree);
+            columnProgram = program;
+        }
+        return program;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
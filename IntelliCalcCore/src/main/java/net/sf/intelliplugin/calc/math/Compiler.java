@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compiles a tree of {@link Node}s into a tree of {@link CompiledNode}s.
+ * <p/>
+ * Every operator is resolved to a lambda once, at compile time. Special constants (pi, euler, ...) are resolved at
+ * compile time as well. Shared subtrees of a hash-consed tree are compiled once and computed once per evaluation.
+ * The compiled nodes evaluate exactly like {@link Eval} interprets the parse tree.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Compiler {
+
+    private final Map<String, BigDecimal> constants;
+    private final MathContext context;
+
+    /**
+     * @param constants the special constants known by the evaluator
+     */
+    Compiler(Map<String, BigDecimal> constants) {
+        this(constants, Eval.DEFAULT_MATH_CONTEXT);
+    }
+
+    /**
+     * @param constants the special constants known by the evaluator
+     * @param context   the precision of the divisions and functions of the compiled expressions
+     */
+    Compiler(Map<String, BigDecimal> constants, MathContext context) {
+        this.constants = constants;
+        this.context = context;
+    }
+
+    /**
+     * @param tree the parse tree to compile
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    CompiledNode compile(Node tree) throws MathException {
+        return compile(tree, Variables.of(tree, constants));
+    }
+
+    /**
+     * @param tree      the parse tree to compile
+     * @param variables the slots of the variables of the tree
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    CompiledNode compile(Node tree, Variables variables) throws MathException {
+        return compile(tree, variables, references(tree), new IdentityHashMap<>());
+    }
+
+    /**
+     * Compiles a subtree. A node shared by several parents is compiled once and its value is memoized during
+     * evaluation.
+     *
+     * @param tree       the subtree to compile
+     * @param variables  the slots of the variables of the tree
+     * @param references the number of parents of each node
+     * @param compiled   the nodes compiled so far
+     * @return the compiled subtree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    private CompiledNode compile(Node tree, Variables variables, Map<Node, Integer> references,
+                                 Map<Node, CompiledNode> compiled) throws MathException {
+        switch (tree.getType()) {
+            case CONSTANT:
+                BigDecimal value = tree.getValue();
+                return scope -> value;
+            case VARIABLE:
+                String name = tree.getVariable();
+                if (constants.containsKey(name)) {
+                    BigDecimal constant = constants.get(name);
+                    return scope -> constant;
+                }
+                int slot = variables.slot(name);
+                return scope -> scope.variable(slot, name);
+        }
+
+        CompiledNode node = compiled.get(tree);
+        if (node != null) {
+            return node;
+        }
+
+        CompiledNode arg1 = compile(tree.arg1(), variables, references, compiled);
+        if (tree.arguments() == 2) {
+            node = binary(tree.getOpcode(), arg1, compile(tree.arg2(), variables, references, compiled));
+        } else {
+            node = unary(tree.getOpcode(), arg1);
+        }
+
+        if (references.getOrDefault(tree, 0) > 1) {
+            CompiledNode shared = node;
+            node = scope -> scope.memoize(tree, shared);
+        }
+        compiled.put(tree, node);
+        return node;
+    }
+
+    /**
+     * @param tree a parse tree
+     * @return the number of parents of every expression node in the tree
+     */
+    static Map<Node, Integer> references(Node tree) {
+        Map<Node, Integer> references = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            for (int i = 1; i <= node.arguments(); i++) {
+                Node arg = i == 1 ? node.arg1() : node.arg2();
+                if (arg.getType() == NodeType.EXPRESSION && references.merge(arg, 1, Integer::sum) == 1) {
+                    pending.push(arg);
+                }
+            }
+        }
+        return references;
+    }
+
+    private CompiledNode binary(Opcode op, CompiledNode arg1, CompiledNode arg2) throws MathException {
+        if (op == null) {
+            throw new MathException("Unknown operator");
+        }
+        switch (op) {
+            case AND:
+                return scope -> bool(isTrue(arg1.evaluate(scope)) && isTrue(arg2.evaluate(scope)));
+            case OR:
+                return scope -> bool(isTrue(arg1.evaluate(scope)) || isTrue(arg2.evaluate(scope)));
+        }
+
+        BinaryOperator<BigDecimal> operation = binaryOperation(op, context);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return scope -> operation.apply(arg1.evaluate(scope), arg2.evaluate(scope));
+    }
+
+    private CompiledNode unary(Opcode op, CompiledNode arg) throws MathException {
+        UnaryOperator<BigDecimal> operation = unaryOperation(op, context);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return scope -> operation.apply(arg.evaluate(scope));
+    }
+
+    /**
+     * Note that the returned operations for <code>&amp;&amp;</code> and <code>||</code> need both operands, the
+     * compiled nodes only evaluate the second operand when needed.
+     *
+     * @param op the operator
+     * @return the operation applying the two argument operator, or null if the operator is unknown
+     */
+    static BinaryOperator<BigDecimal> binaryOperation(Opcode op) {
+        return binaryOperation(op, Eval.DEFAULT_MATH_CONTEXT);
+    }
+
+    /**
+     * @param op      the operator
+     * @param context the precision of divisions and functions
+     * @return the operation applying the two argument operator, or null if the operator is unknown
+     * @see #binaryOperation(Opcode)
+     */
+    static BinaryOperator<BigDecimal> binaryOperation(Opcode op, MathContext context) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case ADD:
+                return BigDecimal::add;
+            case SUBTRACT:
+                return BigDecimal::subtract;
+            case MULTIPLY:
+                return BigDecimal::multiply;
+            case DIVIDE:
+                return (a, b) -> a.divide(b, context);
+            case POWER:
+                return (a, b) -> BigMath.pow(a, b, context);
+            case LOG:
+                return (a, b) -> BigMath.log(a, b, context);
+            case REMAINDER:
+                return BigDecimal::remainder;
+            case EQUAL:
+                return (a, b) -> bool(a.compareTo(b) == 0);
+            case NOT_EQUAL:
+                return (a, b) -> bool(a.compareTo(b) != 0);
+            case LESS:
+                return (a, b) -> bool(a.compareTo(b) < 0);
+            case GREATER:
+                return (a, b) -> bool(a.compareTo(b) > 0);
+            case AND:
+                return (a, b) -> bool(isTrue(a) && isTrue(b));
+            case OR:
+                return (a, b) -> bool(isTrue(a) || isTrue(b));
+            case GREATER_OR_EQUAL:
+                return (a, b) -> bool(a.compareTo(b) >= 0);
+            case LESS_OR_EQUAL:
+                return (a, b) -> bool(a.compareTo(b) <= 0);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param op the operator
+     * @return the operation applying the single argument operator, or null if the operator is unknown
+     */
+    static UnaryOperator<BigDecimal> unaryOperation(Opcode op) {
+        return unaryOperation(op, Eval.DEFAULT_MATH_CONTEXT);
+    }
+
+    /**
+     * @param op      the operator
+     * @param context the precision of divisions and functions
+     * @return the operation applying the single argument operator, or null if the operator is unknown
+     */
+    static UnaryOperator<BigDecimal> unaryOperation(Opcode op, MathContext context) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case SQRT:
+                return a -> BigMath.sqrt(a, context);
+            case SIN:
+                return a -> BigMath.sin(a, context);
+            case COS:
+                return a -> BigMath.cos(a, context);
+            case TAN:
+                return a -> BigMath.tan(a, context);
+            case ASIN:
+                return a -> BigMath.asin(a, context);
+            case ACOS:
+                return a -> BigMath.acos(a, context);
+            case ATAN:
+                return a -> BigMath.atan(a, context);
+            case LN:
+                return a -> BigMath.log(a, context);
+            case EXP:
+                return a -> BigMath.exp(a, context);
+            case COTAN:
+                return a -> BigMath.cotan(a, context);
+            case ACOTAN:
+                return a -> BigMath.acotan(a, context);
+            case CEIL:
+                return a -> BigDecimal.valueOf(StrictMath.ceil(a.doubleValue()));
+            case ROUND:
+                return a -> BigDecimal.valueOf(StrictMath.round(a.doubleValue()));
+            case FLOOR:
+                return a -> BigDecimal.valueOf(StrictMath.floor(a.doubleValue()));
+            case FAC:
+                return BigMath::fac;
+            case ABS:
+                return BigDecimal::abs;
+            case FPART:
+                return BigMath::fpart;
+            case SFAC:
+                return BigMath::sfac;
+            case SINH:
+                return a -> BigMath.sinh(a, context);
+            case COSH:
+                return a -> BigMath.cosh(a, context);
+            case TANH:
+                return a -> BigMath.tanh(a, context);
+            case NOT:
+                return a -> bool(!isTrue(a));
+            case DEG2RAD:
+                return a -> a.multiply(BigMath.pi(context)).divide(BigMath.ONE_EIGHTY, context);
+            case DEG2GRAD:
+                return a -> a.multiply(BigMath.TWO_HUNDRED).divide(BigMath.ONE_EIGHTY, context);
+            case RAD2DEG:
+                return a -> a.multiply(BigMath.ONE_EIGHTY).divide(BigMath.pi(context), context);
+            case RAD2GRAD:
+                return a -> a.multiply(BigMath.TWO_HUNDRED).divide(BigMath.pi(context), context);
+            case GRAD2DEG:
+                return a -> a.multiply(BigMath.ONE_EIGHTY).divide(BigMath.TWO_HUNDRED, context);
+            case GRAD2RAD:
+                return a -> a.multiply(BigMath.pi(context)).divide(BigMath.TWO_HUNDRED, context);
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isTrue(BigDecimal value) {
+        return value.compareTo(BigMath.TRUE) == 0;
+    }
+
+    private static BigDecimal bool(boolean value) {
+        return value ? BigMath.TRUE : BigMath.FALSE;
+    }
+}
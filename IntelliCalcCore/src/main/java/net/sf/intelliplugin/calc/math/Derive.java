@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.metrics.MetricsListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static net.sf.intelliplugin.calc.math.Simplifier.MINUS_ONE;
+import static net.sf.intelliplugin.calc.math.Simplifier.ONE;
+import static net.sf.intelliplugin.calc.math.Simplifier.TWO;
+import static net.sf.intelliplugin.calc.math.Simplifier.ZERO;
+import static net.sf.intelliplugin.calc.math.Simplifier.difference;
+import static net.sf.intelliplugin.calc.math.Simplifier.function;
+import static net.sf.intelliplugin.calc.math.Simplifier.isZero;
+import static net.sf.intelliplugin.calc.math.Simplifier.negate;
+import static net.sf.intelliplugin.calc.math.Simplifier.power;
+import static net.sf.intelliplugin.calc.math.Simplifier.product;
+import static net.sf.intelliplugin.calc.math.Simplifier.quotient;
+import static net.sf.intelliplugin.calc.math.Simplifier.sum;
+
+/**
+ * A Java class for performing symbolic differentiation of a mathematical expression given as a string.
+ * <p>
+ * Example:
+ * <pre>
+ *   Derive d = new Derive();
+ *   String ans[] = d.diff( "cos( x-y )" );
+ *   System.out.println( ans[ 0 ] + " , " );
+ *   System.out.println( ans[ 1 ] );
+ * </pre>
+ * This will print the following: -sin(x-y) , sin(x-y)
+ * <p/>
+ * The expression is parsed into the same tree of {@link Node}s {@link Eval} evaluates. The tree is simplified, derived
+ * and simplified again bottom-up with the {@link Simplifier}, visiting every node once, and printed as an infix
+ * expression by the {@link InfixPrinter}.
+ *
+ * @author Bart Cremers
+ * @since 1.0
+ */
+public class Derive extends MathBase {
+
+    /**
+     * Default variable, used if no variables are given and no variables can be found in the expression.
+     * ( i.e the argument is a constant )
+     */
+    private static final String DEFAULT_VARIABLE = "x";
+
+    private final InfixPrinter printer = new InfixPrinter(ops);
+
+    private volatile MetricsListener metricsListener;
+
+    /**
+     * Constructor.
+     */
+    public Derive() {
+        super();
+    }
+
+    /**
+     * Takes an mathematical expression with infix notation and performs symbolic differentiation in regards to all<br> the
+     * variables found in the expression.
+     *
+     * @param exp string expression with infix notation to derive.
+     * @return string array with the derivatives of exp, one for every variable in the order the variables appear in
+     *         the expression.
+     * @throws SyntaxException if the expression has invalid syntax
+     */
+    public String[] diff(String exp) throws SyntaxException {
+        MetricsListener listener = metricsListener;
+        if (listener == null) {
+            return diff(exp, "");
+        }
+
+        long start = System.nanoTime();
+        String[] ans = diff(exp, "");
+        long nanos = System.nanoTime() - start;
+
+        int length = 0;
+        for (String derivative : ans) {
+            length += derivative.length();
+        }
+        listener.derived(exp, ans.length, length, nanos);
+        return ans;
+    }
+
+    /**
+     * Sets the listener told about the derivation times and derivative sizes of this Derive. Without a listener
+     * nothing is measured.
+     *
+     * @param metricsListener the listener, or null to stop measuring
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * This method takes a mathematical expression with infix notation and performs symbolic differentiation in regards
+     * to<br> the variables listed in <i>variables</i>.
+     *
+     * @param exp  string expression with infix notation to derive.
+     * @param vars semi-colon delimited variables, all variables of the expression if empty.
+     * @return string array with the derivatives of exp.
+     * @throws SyntaxException if the expression has invalid syntax
+     */
+    private String[] diff(String exp, String vars) throws SyntaxException {
+        if (exp == null || exp.equals("")) {
+            throw new SyntaxException("Arguments null or empty string");
+        }
+
+        try {
+            Node tree = new Parser(this, skipSpaces(exp.toLowerCase())).parse();
+
+            List<String> variables;
+            if (vars == null || vars.equals("")) {
+                variables = variables(tree);
+                if (variables.isEmpty()) {
+                    variables.add(DEFAULT_VARIABLE);
+                }
+            } else {
+                variables = new ArrayList<>();
+                for (String variable : skipSpaces(vars.toLowerCase()).split(";")) {
+                    if (!isVariable(variable)) {
+                        throw new SyntaxException("Not a valid variable " + variable);
+                    }
+                    variables.add(variable);
+                }
+            }
+
+            Node simplified = Simplifier.simplify(tree);
+            String[] ans = new String[variables.size()];
+            for (int i = 0; i < ans.length; i++) {
+                ans[i] = printer.print(derive(simplified, variables.get(i)));
+            }
+            return ans;
+        } catch (SyntaxException f) {
+            throw f;
+        } catch (Exception f) {
+            throw new SyntaxException(f.getMessage());
+        }
+    }
+
+    /**
+     * Differentiates a simplified tree bottom-up. Every distinct node is derived once, from the derivatives of its
+     * arguments.
+     *
+     * @param tree     the simplified tree to derive
+     * @param variable the variable to derive to
+     * @return the simplified derivative
+     * @throws IllegalArgumentException if the tree contains an operator without derivative
+     */
+    private static Node derive(Node tree, String variable) {
+        return Trees.rewrite(tree, (node, da, db) -> derive(node, da, db, variable));
+    }
+
+    /**
+     * @param tree     a node of the tree
+     * @param da       the derivative of the first argument of the node, null if the node has no arguments
+     * @param db       the derivative of the second argument of the node, null if the node has less than two arguments
+     * @param variable the variable to derive to
+     * @return the derivative of the node
+     * @throws IllegalArgumentException if the node is an operator without derivative
+     */
+    private static Node derive(Node tree, Node da, Node db, String variable) {
+        switch (tree.getType()) {
+            case CONSTANT:
+                return ZERO;
+            case VARIABLE:
+                return tree.getVariable().equals(variable) ? ONE : ZERO;
+        }
+
+        if (isZero(da) && (tree.arguments() == 1 || isZero(db))) {
+            // the node does not depend on the variable
+            return ZERO;
+        }
+
+        Node a = tree.arg1();
+        Node b = tree.arg2();
+        Opcode op = tree.getOpcode();
+        if (op != null) {
+            switch (op) {
+                case ADD:
+                    return sum(da, db);
+                case SUBTRACT:
+                    return difference(da, db);
+                case MULTIPLY:
+                    return sum(product(da, b), product(a, db));
+                case DIVIDE:
+                    if (isZero(db)) {
+                        return quotient(da, b);
+                    }
+                    return quotient(difference(product(da, b), product(a, db)), power(b, TWO));
+                case POWER:
+                    if (isZero(db)) {
+                        return product(product(b, power(a, difference(b, ONE))), da);
+                    } else if (isZero(da)) {
+                        return product(product(tree, function(Opcode.LN, a)), db);
+                    }
+                    return product(tree, sum(product(db, function(Opcode.LN, a)), quotient(product(b, da), a)));
+                case LOG:
+                    // a log b is ln(a)/ln(b)
+                    Node lnb = function(Opcode.LN, b);
+                    if (isZero(db)) {
+                        return quotient(da, product(a, lnb));
+                    }
+                    return quotient(difference(product(quotient(da, a), lnb),
+                                               product(function(Opcode.LN, a), quotient(db, b))),
+                                    power(lnb, TWO));
+                case SQRT:
+                    return quotient(da, product(TWO, tree));
+                case EXP:
+                    return product(da, tree);
+                case LN:
+                    return quotient(da, a);
+                case SIN:
+                    return product(da, function(Opcode.COS, a));
+                case COS:
+                    return negate(product(da, function(Opcode.SIN, a)));
+                case TAN:
+                    return product(da, sum(power(tree, TWO), ONE));
+                case COTAN:
+                    return product(da, difference(MINUS_ONE, power(tree, TWO)));
+                case ASIN:
+                    return quotient(da, function(Opcode.SQRT, difference(ONE, power(a, TWO))));
+                case ACOS:
+                    return negate(quotient(da, function(Opcode.SQRT, difference(ONE, power(a, TWO)))));
+                case ATAN:
+                    return quotient(da, sum(power(a, TWO), ONE));
+                case ACOTAN:
+                    return negate(quotient(da, sum(power(a, TWO), ONE)));
+                case SINH:
+                    return product(da, function(Opcode.COSH, a));
+                case COSH:
+                    return product(da, function(Opcode.SINH, a));
+                case TANH:
+                    return product(da, difference(ONE, power(tree, TWO)));
+                case ABS:
+                    return quotient(product(a, da), tree);
+                case FPART:
+                    return da;
+                case DEG2RAD:
+                case DEG2GRAD:
+                case RAD2DEG:
+                case RAD2GRAD:
+                case GRAD2DEG:
+                case GRAD2RAD:
+                    // the angle conversions are linear
+                    return function(op, da);
+            }
+        }
+        throw new IllegalArgumentException("No derivative for operator " + tree.getOperator());
+    }
+
+    /**
+     * @param tree a parse tree
+     * @return the variables of the tree, in the order they appear in the expression
+     */
+    private static List<String> variables(Node tree) {
+        Set<String> variables = new LinkedHashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node.getType() == NodeType.VARIABLE) {
+                variables.add(node.getVariable());
+            } else if (node.arguments() > 0) {
+                if (node.arguments() > 1) {
+                    pending.push(node.arg2());
+                }
+                pending.push(node.arg1());
+            }
+        }
+        return new ArrayList<>(variables);
+    }
+
+    /**
+     * Parses out all spaces in str.
+     *
+     * @param str the expression
+     * @return the expression without the spaces
+     */
+    private String skipSpaces(String str) {
+        StringBuilder newStr = new StringBuilder(str.length());
+        int len = str.length();
+
+        for (int i = 0; i < len; i++) {
+            if (str.charAt(i) != ' ') {
+                newStr.append(str.charAt(i));
+            }
+        }
+
+        return newStr.toString();
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compiles a tree of {@link Node}s into a tree of {@link CompiledDouble}s, evaluating on primitive doubles.
+ * <p/>
+ * Operators needing exact arithmetic (<code>fac</code>, <code>sfac</code> and <code>%</code>) convert their double
+ * arguments to BigDecimal and their result back to a double. Comparisons of numbers which are too large to be
+ * represented exactly by a double are recomputed on BigDecimal by the {@link Compiler}.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ * @see EvaluationMode#DOUBLE
+ */
+final class DoubleCompiler {
+
+    /**
+     * Doubles below 2<sup>53</sup> can represent every integer, larger numbers may have been rounded.
+     */
+    private static final double EXACT = 0x1p53;
+
+    private static final double DEG_TO_RAD = StrictMath.PI / 180;
+    private static final double RAD_TO_DEG = 180 / StrictMath.PI;
+
+    private final Map<String, BigDecimal> constants;
+    private final Compiler decimals;
+
+    /**
+     * @param constants the special constants known by the evaluator
+     * @param decimals  the compiler used for operators which need exact arithmetic
+     */
+    DoubleCompiler(Map<String, BigDecimal> constants, Compiler decimals) {
+        this.constants = constants;
+        this.decimals = decimals;
+    }
+
+    /**
+     * @param tree      the parse tree to compile
+     * @param variables the slots of the variables of the tree
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    CompiledDouble compile(Node tree, Variables variables) throws MathException {
+        return compile(tree, variables, Compiler.references(tree), new IdentityHashMap<>(), new IdentityHashMap<>());
+    }
+
+    /**
+     * Compiles a subtree. A node shared by several parents is compiled once and its value is memoized during
+     * evaluation.
+     *
+     * @param tree       the subtree to compile
+     * @param variables  the slots of the variables of the tree
+     * @param references the number of parents of each node
+     * @param compiled   the nodes compiled so far
+     * @param slots      the memo slot of each shared node compiled so far
+     * @return the compiled subtree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    private CompiledDouble compile(Node tree, Variables variables, Map<Node, Integer> references,
+                                   Map<Node, CompiledDouble> compiled, Map<Node, Integer> slots) throws MathException {
+        switch (tree.getType()) {
+            case CONSTANT:
+                double value = toDouble(tree.getValue());
+                return scope -> value;
+            case VARIABLE:
+                String name = tree.getVariable();
+                if (constants.containsKey(name)) {
+                    double constant = name.equals("infinity")
+                            ? Double.POSITIVE_INFINITY : toDouble(constants.get(name));
+                    return scope -> constant;
+                }
+                int slot = variables.slot(name);
+                return scope -> scope.doubleVariable(slot, name);
+        }
+
+        CompiledDouble node = compiled.get(tree);
+        if (node != null) {
+            return node;
+        }
+
+        CompiledDouble arg1 = compile(tree.arg1(), variables, references, compiled, slots);
+        if (tree.arguments() == 2) {
+            node = binary(tree, variables, arg1, compile(tree.arg2(), variables, references, compiled, slots));
+        } else {
+            node = unary(tree.getOpcode(), arg1);
+        }
+
+        if (references.getOrDefault(tree, 0) > 1) {
+            CompiledDouble shared = node;
+            int slot = slots.size();
+            slots.put(tree, slot);
+            node = scope -> scope.memoizeDouble(slot, shared);
+        }
+        compiled.put(tree, node);
+        return node;
+    }
+
+    private CompiledDouble binary(Node tree, Variables variables, CompiledDouble arg1, CompiledDouble arg2)
+            throws MathException {
+        if (tree.getOpcode() == null) {
+            throw new MathException("Unknown operator");
+        }
+        switch (tree.getOpcode()) {
+            case ADD:
+                return scope -> arg1.evaluate(scope) + arg2.evaluate(scope);
+            case SUBTRACT:
+                return scope -> arg1.evaluate(scope) - arg2.evaluate(scope);
+            case MULTIPLY:
+                return scope -> arg1.evaluate(scope) * arg2.evaluate(scope);
+            case DIVIDE:
+                return scope -> arg1.evaluate(scope) / arg2.evaluate(scope);
+            case POWER:
+                return scope -> StrictMath.pow(arg1.evaluate(scope), arg2.evaluate(scope));
+            case LOG:
+                return scope -> StrictMath.log(arg1.evaluate(scope)) / StrictMath.log(arg2.evaluate(scope));
+            case REMAINDER:
+                return scope -> remainder(arg1.evaluate(scope), arg2.evaluate(scope));
+            case EQUAL:
+                return comparison(tree, variables, arg1, arg2, c -> c == 0);
+            case NOT_EQUAL:
+                return comparison(tree, variables, arg1, arg2, c -> c != 0);
+            case LESS:
+                return comparison(tree, variables, arg1, arg2, c -> c < 0);
+            case GREATER:
+                return comparison(tree, variables, arg1, arg2, c -> c > 0);
+            case GREATER_OR_EQUAL:
+                return comparison(tree, variables, arg1, arg2, c -> c >= 0);
+            case LESS_OR_EQUAL:
+                return comparison(tree, variables, arg1, arg2, c -> c <= 0);
+            case AND:
+                return scope -> bool(arg1.evaluate(scope) == 1 && arg2.evaluate(scope) == 1);
+            case OR:
+                return scope -> bool(arg1.evaluate(scope) == 1 || arg2.evaluate(scope) == 1);
+        }
+
+        throw new MathException("Unknown operator");
+    }
+
+    private CompiledDouble unary(Opcode op, CompiledDouble arg) throws MathException {
+        if (op == null) {
+            throw new MathException("Unknown operator");
+        }
+        switch (op) {
+            case SQRT:
+                return scope -> Math.sqrt(arg.evaluate(scope));
+            case SIN:
+                return scope -> StrictMath.sin(arg.evaluate(scope));
+            case COS:
+                return scope -> StrictMath.cos(arg.evaluate(scope));
+            case TAN:
+                return scope -> StrictMath.tan(arg.evaluate(scope));
+            case ASIN:
+                return scope -> StrictMath.asin(arg.evaluate(scope));
+            case ACOS:
+                return scope -> StrictMath.acos(arg.evaluate(scope));
+            case ATAN:
+                return scope -> StrictMath.atan(arg.evaluate(scope));
+            case LN:
+                return scope -> StrictMath.log(arg.evaluate(scope));
+            case EXP:
+                return scope -> StrictMath.exp(arg.evaluate(scope));
+            case COTAN:
+                return scope -> 1 / StrictMath.tan(arg.evaluate(scope));
+            case ACOTAN:
+                return scope -> StrictMath.atan(1 / arg.evaluate(scope));
+            case CEIL:
+                return scope -> StrictMath.ceil(arg.evaluate(scope));
+            case ROUND:
+                return scope -> StrictMath.round(arg.evaluate(scope));
+            case FLOOR:
+                return scope -> StrictMath.floor(arg.evaluate(scope));
+            case FAC:
+                return scope -> exactly(BigMath::fac, arg.evaluate(scope));
+            case SFAC:
+                return scope -> exactly(BigMath::sfac, arg.evaluate(scope));
+            case ABS:
+                return scope -> Math.abs(arg.evaluate(scope));
+            case FPART:
+                return scope -> {
+                    double value = arg.evaluate(scope);
+                    return value - (value >= 0 ? StrictMath.floor(value) : StrictMath.ceil(value));
+                };
+            case SINH:
+                return scope -> StrictMath.sinh(arg.evaluate(scope));
+            case COSH:
+                return scope -> StrictMath.cosh(arg.evaluate(scope));
+            case TANH:
+                return scope -> StrictMath.tanh(arg.evaluate(scope));
+            case NOT:
+                return scope -> bool(arg.evaluate(scope) != 1);
+            case DEG2RAD:
+                return scope -> arg.evaluate(scope) * DEG_TO_RAD;
+            case DEG2GRAD:
+                return scope -> arg.evaluate(scope) * 200 / 180;
+            case RAD2DEG:
+                return scope -> arg.evaluate(scope) * RAD_TO_DEG;
+            case RAD2GRAD:
+                return scope -> arg.evaluate(scope) * 200 / StrictMath.PI;
+            case GRAD2DEG:
+                return scope -> arg.evaluate(scope) * 180 / 200;
+            case GRAD2RAD:
+                return scope -> arg.evaluate(scope) * StrictMath.PI / 200;
+        }
+
+        throw new MathException("Unknown operator");
+    }
+
+    /**
+     * Compiles a comparison. Operands of at least 2<sup>53</sup> may have been rounded, in which case the comparison
+     * is recomputed on BigDecimal. A comparison with NaN is NaN.
+     *
+     * @param tree      the comparison node
+     * @param variables the slots of the variables of the expression
+     * @param arg1      the first operand
+     * @param arg2      the second operand
+     * @param test      tests the sign of the comparison
+     * @return the compiled comparison
+     * @throws MathException if the tree contains an unknown operator
+     */
+    private CompiledDouble comparison(Node tree, Variables variables, CompiledDouble arg1, CompiledDouble arg2,
+                                      IntPredicate test) throws MathException {
+        CompiledNode exact = decimals.compile(tree, variables);
+        return scope -> {
+            double a = arg1.evaluate(scope);
+            double b = arg2.evaluate(scope);
+            if (Double.isNaN(a) || Double.isNaN(b)) {
+                return Double.NaN;
+            } else if (isRounded(a) || isRounded(b)) {
+                return toDouble(exact.evaluate(scope));
+            }
+            return bool(test.test(a < b ? -1 : a > b ? 1 : 0));
+        };
+    }
+
+    private static boolean isRounded(double value) {
+        return !Double.isInfinite(value) && Math.abs(value) >= EXACT;
+    }
+
+    private static double bool(boolean value) {
+        return value ? 1 : 0;
+    }
+
+    /**
+     * Applies an operation needing exact arithmetic to a double.
+     *
+     * @param operation the operation
+     * @param value     the argument
+     * @return the result of the operation, NaN if the argument or the result is not a number
+     */
+    static double exactly(UnaryOperator<BigDecimal> operation, double value) {
+        BigDecimal decimal = toDecimal(value);
+        return decimal == null ? Double.NaN : toDouble(operation.apply(decimal));
+    }
+
+    /**
+     * Computes the remainder of the decimal values of two doubles, so <code>0.3%0.1</code> is 0.
+     *
+     * @param a the dividend
+     * @param b the divisor
+     * @return the remainder, NaN if an argument is not a finite number
+     * @throws ArithmeticException if the divisor is zero
+     */
+    static double remainder(double a, double b) {
+        BigDecimal dividend = toDecimal(a);
+        BigDecimal divisor = toDecimal(b);
+        return dividend == null || divisor == null ? Double.NaN : dividend.remainder(divisor).doubleValue();
+    }
+
+    /**
+     * @param value a BigDecimal, null representing NaN
+     * @return the double value
+     */
+    static double toDouble(BigDecimal value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * Converts a double to the BigDecimal it was most likely parsed from, integral values get a scale of 0.
+     *
+     * @param value a double
+     * @return the BigDecimal value, null if the value is NaN or infinite
+     */
+    static BigDecimal toDecimal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        } else if (value == StrictMath.rint(value) && Math.abs(value) < EXACT) {
+            return BigDecimal.valueOf((long) value);
+        }
+        return BigDecimal.valueOf(value);
+    }
+}
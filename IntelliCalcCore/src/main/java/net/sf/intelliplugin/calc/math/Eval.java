@@ -0,0 +1,706 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+import net.sf.intelliplugin.calc.metrics.MetricsListener;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.function.BinaryOperator;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class evaluates a mathematical expression given as a String to a double value.
+ * <p/>
+ * Example:
+ * <pre>
+ * import net.sf.intelliplugin.calc.math.*;
+ * <p/>
+ * public class Test {
+ * <p/>
+ *     public static void main( String args[] ) {
+ *         Eval e = new Eval();
+ * <p/>
+ *         try {
+ *             System.out.println( e.eval( "cos(x+y)" , "x=pi;y=2.34" ) );
+ *         } catch( Exception ex ) {
+ *             // handle
+ *         }
+ *     }
+ * }
+ * </pre>
+ * The example above uses the eval( String, String ) method but for efficiency you should<br> as a rule use the eval(
+ * String, Hashtable ) method.
+ * <p/>
+ * An Eval holds no state of a single evaluation, all methods can be called concurrently from multiple threads. When
+ * the same expression is evaluated repeatedly, {@link #compile(String)} it once and evaluate the immutable
+ * {@link CompiledExpression}.
+ *
+ * @author Bart Cremers
+ * @since 1.0
+ */
+public class Eval extends MathBase {
+    private final Map<String, BigDecimal> spConst;
+    private final ExpressionCache trees;
+    private final Compiler compiler;
+    private final DoubleCompiler doubleCompiler;
+    private final ColumnCompiler columnCompiler;
+    private final Optimizer optimizer;
+    private final Optimizer exactOptimizer;
+    private volatile MetricsListener metricsListener;
+
+    /**
+     * The default maximum number of parse trees kept in the cache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+    /**
+     * The default maximum number of nodes of all parse trees kept in the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 100000;
+
+    /**
+     * The default number of significant digits guaranteed by {@link EvaluationMode#ADAPTIVE}.
+     */
+    public static final int DEFAULT_ADAPTIVE_DIGITS = 12;
+
+    static final MathContext DEFAULT_MATH_CONTEXT = new MathContext(20, RoundingMode.HALF_EVEN);
+
+    /**
+     * The operations applied by the interpreter, the same operations the compiled expressions apply.
+     */
+    private static final Map<Opcode, BinaryOperator<BigDecimal>> BINARY_OPERATIONS = new EnumMap<>(Opcode.class);
+    private static final Map<Opcode, UnaryOperator<BigDecimal>> UNARY_OPERATIONS = new EnumMap<>(Opcode.class);
+
+    static {
+        for (Opcode op : Opcode.values()) {
+            BinaryOperator<BigDecimal> binary = Compiler.binaryOperation(op, DEFAULT_MATH_CONTEXT);
+            if (binary != null) {
+                BINARY_OPERATIONS.put(op, binary);
+            }
+            UnaryOperator<BigDecimal> unary = Compiler.unaryOperation(op, DEFAULT_MATH_CONTEXT);
+            if (unary != null) {
+                UNARY_OPERATIONS.put(op, unary);
+            }
+        }
+    }
+
+    /**
+     * Compiled nodes evaluate their arguments recursively, deeper trees are interpreted with an explicit stack.
+     */
+    private static final int MAXIMUM_COMPILED_DEPTH = 1000;
+
+    /**
+     * Constructs a Eval object, caching at most {@link #DEFAULT_MAXIMUM_SIZE} parse trees with a total of at most
+     * {@link #DEFAULT_MAXIMUM_WEIGHT} nodes.
+     */
+    public Eval() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * Constructs a Eval object with a bounded parse tree cache. The least recently used trees are evicted once either
+     * limit is exceeded.
+     *
+     * @param maximumSize   the maximum number of parse trees kept in the cache, 0 disables the cache
+     * @param maximumWeight the maximum number of nodes of all parse trees kept in the cache
+     * @throws IllegalArgumentException if a limit is negative
+     */
+    public Eval(int maximumSize, long maximumWeight) {
+        Map<String, BigDecimal> constants = new HashMap<>(12);
+
+        constants.put("euler", BigMath.e(DEFAULT_MATH_CONTEXT));
+        constants.put("pi", BigMath.pi(DEFAULT_MATH_CONTEXT));
+        constants.put("nan", BigMath.NaN);
+        constants.put("infinity", BigMath.POSITIVE_INFINITY);
+        constants.put("true", BigMath.TRUE);
+        constants.put("false", BigMath.FALSE);
+
+        spConst = Collections.unmodifiableMap(constants);
+
+        trees = new ExpressionCache(maximumSize, maximumWeight);
+        compiler = new Compiler(spConst);
+        doubleCompiler = new DoubleCompiler(spConst, compiler);
+        columnCompiler = new ColumnCompiler(spConst);
+        optimizer = new Optimizer(this, compiler);
+        exactOptimizer = new Optimizer(this, new Compiler(spConst, MathContext.UNLIMITED));
+    }
+
+    /**
+     * This methods will parse out all spaces in the String str. <br>
+     * <p/>
+     * ( I wish there was a native effective method to do this since this need often<br> appears when programming in
+     * Java. )
+     *
+     * @param str the String to process
+     * @return the String stripped of all spaces
+     */
+    private String skipSpaces(String str) {
+        int i = 0;
+        int len = str.length();
+        StringBuilder nStr = new StringBuilder(len);
+
+        while (i < len) {
+            if (str.charAt(i) != ' ') {
+                nStr.append(str.charAt(i));
+            }
+            i++;
+        }
+
+        return nStr.toString();
+    }
+
+    /**
+     * Parses an infix String expression and creates a parse tree.
+     * <p/>
+     * The expression is tokenized and parsed in a single pass by the {@link Parser}, which also takes care of
+     * scientific notation and juxtaposition. Constant subtrees and identity operations are then simplified by the
+     * {@link Optimizer}, and the tree is flattened into a {@link FlatTree} storing equal subtrees once.
+     * <p/>
+     * The data structure is then parsed by the toValue method.
+     *
+     * @param exp the infix String expression
+     * @return a flat data structure representing the expression
+     * @throws MathException if the expression can not be parsed.
+     */
+    FlatTree parse(String exp) throws MathException {
+        return FlatTree.of(optimizer.optimize(new Parser(this, exp).parse()));
+    }
+
+    /**
+     * Parses an infix String expression, telling the listener how long it took.
+     *
+     * @param exp      the infix String expression
+     * @param listener the listener to tell, or null
+     * @return a flat data structure representing the expression
+     * @throws MathException if the expression can not be parsed.
+     */
+    private FlatTree parse(String exp, MetricsListener listener) throws MathException {
+        if (listener == null) {
+            return parse(exp);
+        }
+        long start = System.nanoTime();
+        FlatTree tree = parse(exp);
+        listener.parsed(exp, tree.size(), System.nanoTime() - start);
+        return tree;
+    }
+
+    /**
+     * @param name a variable name
+     * @return the value of the special constant (pi, euler, ...) with the given name, or null if there is none
+     */
+    BigDecimal specialConstant(String name) {
+        return spConst.get(name);
+    }
+
+    /**
+     * Compiles a parse tree into a tree of evaluators. A tree which is too deep to be evaluated recursively is
+     * interpreted instead.
+     *
+     * @param tree the parse tree
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    CompiledNode compile(FlatTree tree) throws MathException {
+        if (tree.depth() > MAXIMUM_COMPILED_DEPTH) {
+            return scope -> toValue(tree, scope);
+        }
+        return compiler.compile(tree.toNode());
+    }
+
+    /**
+     * Compiles a parse tree for columnar evaluation.
+     *
+     * @param tree the parse tree
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator or is too deep to be evaluated column by column
+     */
+    ColumnProgram compileColumns(FlatTree tree) throws MathException {
+        if (tree.depth() > MAXIMUM_COMPILED_DEPTH) {
+            throw new MathException("Expression is nested too deeply for batch evaluation");
+        }
+        return columnCompiler.compile(tree.toNode());
+    }
+
+    /**
+     * Evaluates a parse tree, telling the listener how long it took.
+     *
+     * @param tree       the flattened parse tree
+     * @param scope      the variable values
+     * @param listener   the listener to tell, or null
+     * @param expression the normalized expression of the tree
+     * @return the value of the tree
+     * @throws MathException if the evaluation fails
+     */
+    private BigDecimal toValue(FlatTree tree, Scope scope, MetricsListener listener, String expression)
+        throws MathException {
+        if (listener == null) {
+            return toValue(tree, scope);
+        }
+        long start = System.nanoTime();
+        BigDecimal value = toValue(tree, scope);
+        listener.evaluated(expression, tree.size(), value == null ? 0 : value.precision(),
+                           System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * Parses the data structure created by the parse method.
+     * <p/>
+     * <p/>
+     * <p/>
+     * This is where the actual evaluation of the expression is made,<br> the nodes created by the parse method are
+     * evaluated in a single forward loop<br> to a double value. The arguments of a node always precede the node, so
+     * the depth of the tree is only bounded by the heap.
+     * <p/>
+     * An error evaluating a node is kept as the result of the node and only thrown when the error reaches the root.
+     * The right hand side of <code>&amp;&amp;</code> and <code>||</code> is skipped when the left hand side decides
+     * the result.
+     *
+     * @param tree  the flattened parse tree
+     * @param scope the variable values
+     * @return a double value
+     * @throws MathException if the value for a variable could not be acquired for some reason.
+     */
+    private BigDecimal toValue(FlatTree tree, Scope scope) throws MathException {
+        int size = tree.size();
+        BigDecimal[] values = new BigDecimal[size];
+        Exception[] failures = new Exception[size];
+
+        for (int i = 0; i < size; i++) {
+            int arg1 = tree.arg1(i);
+            int arg2 = tree.arg2(i);
+
+            try {
+                switch (tree.code(i)) {
+                    case FlatTree.CONSTANT:
+                        values[i] = tree.constant(i);
+                        break;
+                    case FlatTree.VARIABLE:
+                        values[i] = variable(tree.variable(i), scope);
+                        break;
+                    case FlatTree.BRANCH:
+                        if (arg1 < 0) {
+                            i = arg2;
+                        } else if (arg2 >= 0 && failures[arg1] != null) {
+                            failures[arg2] = failures[arg1];
+                            i = arg2;
+                        } else if (arg2 >= 0 && tree.opcode(arg2) == Opcode.AND
+                                                ^ values[arg1].compareTo(BigMath.TRUE) == 0) {
+                            values[arg2] = tree.opcode(arg2) == Opcode.AND ? BigMath.FALSE : BigMath.TRUE;
+                            i = arg2;
+                        }
+                        break;
+                    default:
+                        if (failures[arg1] != null) {
+                            failures[i] = failures[arg1];
+                        } else if (arg2 < 0) {
+                            values[i] = operate(tree.opcode(i), values[arg1]);
+                        } else if (failures[arg2] != null) {
+                            failures[i] = failures[arg2];
+                        } else {
+                            values[i] = operate(tree.opcode(i), values[arg1], values[arg2]);
+                        }
+                }
+            } catch (MathException | RuntimeException e) {
+                if (tree.code(i) == FlatTree.BRANCH) {
+                    // the left hand side is not a number
+                    i = arg2;
+                }
+                failures[i] = e;
+            }
+        }
+
+        Exception failure = failures[tree.root()];
+        if (failure instanceof MathException) {
+            throw (MathException) failure;
+        } else if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+        return values[tree.root()];
+    }
+
+    /**
+     * @param name  the name of a variable
+     * @param scope the variable values
+     * @return the value of the variable
+     * @throws MathException if the value for a variable could not be acquired for some reason.
+     */
+    private BigDecimal variable(String name, Scope scope) throws MathException {
+        // check if PI, Euler....etc
+        if (spConst.containsKey(name)) {
+            return spConst.get(name);
+        }
+
+        // normal variable, get value
+        return scope.variable(name);
+    }
+
+    /**
+     * Applies a binary operator to its evaluated arguments.
+     *
+     * @param op the operator
+     * @param a  the value of the first argument
+     * @param b  the value of the second argument
+     * @return a double value
+     * @throws MathException if the operator is unknown
+     */
+    private BigDecimal operate(Opcode op, BigDecimal a, BigDecimal b) throws MathException {
+        BinaryOperator<BigDecimal> operation = BINARY_OPERATIONS.get(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return operation.apply(a, b);
+    }
+
+    /**
+     * Applies a single argument operator to its evaluated argument.
+     *
+     * @param op the operator
+     * @param a  the value of the argument
+     * @return a double value
+     * @throws MathException if the operator is unknown
+     */
+    private BigDecimal operate(Opcode op, BigDecimal a) throws MathException {
+        UnaryOperator<BigDecimal> operation = UNARY_OPERATIONS.get(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return operation.apply(a);
+    }
+
+    /**
+     * Evaluates the infix expression exp using the values in the map.
+     * <p/>
+     * This is one of the publicly available methods of the class, it is an entry point into the parser and the method
+     * you want to use when evaluating a String expression.
+     * <p/>
+     * Example:
+     * <pre>
+     *   import net.sf.intelliplugin.calc.math.*;
+     *   import java.util.Hashtable;
+     * <p/>
+     *   public class Test {
+     *       public static void main(String[] args) {
+     *           Eval e = new Eval();
+     *           Map map = new HashMap&lt;String, String&gt;();
+     *           try {
+     *               map.put("x", "pi");
+     *               map.put("y", "2.34");
+     * <p/>
+     *               System.out.println(e.eval("cos(x+y)", h));
+     *           } catch (Exception ex) {}
+     *       }
+     *   }
+     * </pre>
+     *
+     * @param exp the infix String expression to evaluate.
+     * @param tbl Hashtable with variable value pairs
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     */
+    public BigDecimal eval(String exp, Map<String, String> tbl) throws MathException {
+        if (exp == null || exp.equals("")) {
+            throw new MathException("First argument to method eval is null or empty string");
+        } else if (tbl == null) {
+            return eval(exp);
+        }
+
+        return eval(exp, new Bindings(this, tbl));
+    }
+
+    /**
+     * Evaluates the infix expression exp using the variable values of the bindings.
+     * <p/>
+     * Variables defined by an expression are only parsed and computed once for as long as neither the variable nor
+     * the variables it depends on change, this is the method to use when the same variables are used over and over.
+     *
+     * @param exp      the infix String expression to evaluate.
+     * @param bindings the variable=value pairs
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     */
+    public BigDecimal eval(String exp, Bindings bindings) throws MathException {
+        if (exp == null || exp.equals("")) {
+            throw new MathException("First argument to method eval is null or empty string");
+        } else if (bindings == null) {
+            return eval(exp);
+        }
+
+        String tmp = skipSpaces(exp.toLowerCase());
+        MetricsListener listener = metricsListener;
+
+        try {
+            BigDecimal ans;
+            FlatTree tree = trees.get(tmp);
+            if (tree != null) {
+                if (listener != null) {
+                    listener.cacheHit(tmp);
+                }
+                ans = toValue(tree, new Scope(bindings), listener, tmp);
+            } else {
+                tree = parse(tmp, listener);
+
+                ans = toValue(tree, new Scope(bindings), listener, tmp);
+
+                trees.put(tmp, tree);
+            }
+
+            return ans;
+        } catch (Exception e) {
+            throw new MathException("Evaluation failed", e);
+        }
+    }
+
+    /**
+     * Evaluates the infix expression exp using the variable values of the bindings and the given arithmetic.
+     *
+     * @param exp      the infix String expression to evaluate.
+     * @param bindings the variable=value pairs
+     * @param mode     the arithmetic to evaluate the expression with
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     * @see EvaluationMode
+     */
+    public BigDecimal eval(String exp, Bindings bindings, EvaluationMode mode) throws MathException {
+        if (mode != EvaluationMode.DECIMAL) {
+            return compile(exp, mode).evaluate(bindings == null ? new Bindings(this) : bindings);
+        }
+        return eval(exp, bindings);
+    }
+
+    /**
+     * Evaluates the infix expression exp on primitive doubles, without creating BigDecimals for the intermediate
+     * results.
+     *
+     * @param exp      the infix String expression to evaluate.
+     * @param bindings the variable=value pairs
+     * @return a double value, NaN if the result is not a number
+     * @throws MathException when evaluation of the expression fails
+     * @see EvaluationMode#DOUBLE
+     */
+    public double evalDouble(String exp, Bindings bindings) throws MathException {
+        return compile(exp, EvaluationMode.DOUBLE).evaluateDouble(bindings == null ? new Bindings(this) : bindings);
+    }
+
+    /**
+     * Sets the listener told about the parse and evaluation times of this Eval. Without a listener nothing is
+     * measured.
+     *
+     * @param metricsListener the listener, or null to stop measuring
+     */
+    public void setMetricsListener(MetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * @return a snapshot of the statistics of the parse tree cache
+     */
+    public CacheStatistics getCacheStatistics() {
+        return trees.statistics();
+    }
+
+    /**
+     * Compiles the infix expression exp for repeated evaluation.
+     * <p/>
+     * The expression is parsed once and every operator is resolved once, evaluating the returned expression only
+     * computes the result. Prefer this method over {@link #eval(String,Map)} when the same expression is evaluated
+     * many times with different variable values.
+     *
+     * @param exp the infix String expression to compile
+     * @return the compiled expression
+     * @throws MathException when the expression can not be parsed
+     */
+    public CompiledExpression compile(String exp) throws MathException {
+        return compile(exp, EvaluationMode.DECIMAL);
+    }
+
+    /**
+     * Compiles the infix expression exp for repeated evaluation with the given arithmetic. An expression compiled for
+     * {@link EvaluationMode#ADAPTIVE} guarantees {@link #DEFAULT_ADAPTIVE_DIGITS} significant digits.
+     *
+     * @param exp  the infix String expression to compile
+     * @param mode the arithmetic to evaluate the expression with
+     * @return the compiled expression. An expression nested too deeply to be evaluated recursively is interpreted on
+     * BigDecimal, whatever the mode.
+     * @throws MathException when the expression can not be parsed
+     * @see #compile(String)
+     */
+    public CompiledExpression compile(String exp, EvaluationMode mode) throws MathException {
+        return compile(exp, mode, DEFAULT_ADAPTIVE_DIGITS);
+    }
+
+    /**
+     * Compiles the infix expression exp for {@link EvaluationMode#ADAPTIVE} evaluation, guaranteeing the given number
+     * of significant digits. Up to about 12 digits most expressions are evaluated on doubles only.
+     *
+     * @param exp    the infix String expression to compile
+     * @param digits the number of significant digits of the result
+     * @return the compiled expression
+     * @throws MathException            when the expression can not be parsed
+     * @throws IllegalArgumentException if the number of digits is not positive
+     */
+    public CompiledExpression compileAdaptive(String exp, int digits) throws MathException {
+        if (digits < 1) {
+            throw new IllegalArgumentException("Number of digits must be positive, " + digits + " given");
+        }
+        return compile(exp, EvaluationMode.ADAPTIVE, digits);
+    }
+
+    private CompiledExpression compile(String exp, EvaluationMode mode, int digits) throws MathException {
+        if (exp == null || exp.equals("")) {
+            throw new MathException("First argument to method compile is null or empty string");
+        }
+
+        String tmp = skipSpaces(exp.toLowerCase());
+
+        MetricsListener listener = metricsListener;
+        FlatTree cached = trees.get(tmp);
+        if (cached == null) {
+            cached = parse(tmp, listener);
+            trees.put(tmp, cached);
+        } else if (listener != null) {
+            listener.cacheHit(tmp);
+        }
+        FlatTree tree = cached;
+
+        Variables variables = Variables.of(tree, spConst);
+        if (tree.depth() > MAXIMUM_COMPILED_DEPTH) {
+            // too deep to evaluate recursively, interpret the tree on BigDecimal
+            if (mode == EvaluationMode.DOUBLE) {
+                return new CompiledExpression(this, tmp, tree, variables,
+                                              (CompiledDouble) scope -> DoubleCompiler.toDouble(toValue(tree, scope)));
+            }
+            return new CompiledExpression(this, tmp, tree, variables, mode, scope -> toValue(tree, scope));
+        } else if (mode == EvaluationMode.DOUBLE) {
+            return new CompiledExpression(this, tmp, tree, variables,
+                                          doubleCompiler.compile(tree.toNode(), variables));
+        } else if (mode == EvaluationMode.ADAPTIVE) {
+            // the cached tree holds constants rounded to the default precision, only fold the exact ones
+            FlatTree parsed = FlatTree.of(exactOptimizer.optimize(new Parser(this, tmp).parse()));
+            Node root = (parsed.depth() > MAXIMUM_COMPILED_DEPTH ? tree : parsed).toNode();
+            return new CompiledExpression(this, tmp, tree, variables, mode,
+                                          new AdaptiveNode(spConst, root, variables, digits));
+        }
+        return new CompiledExpression(this, tmp, tree, variables, mode, compiler.compile(tree.toNode(), variables));
+    }
+
+    /**
+     * Evaluates the infix expression exp using the variable=value pairs defined in the variables String.
+     * <p/>
+     * This is one of the publicly available methods of the class, it is an entry point into the parser and the method
+     * you want to use when evaluating a String expression.
+     * <p/>
+     * Example:
+     * <pre>
+     *   import net.sf.intelliplugin.calc.math.*;
+     * <p/>
+     *   public class Test {
+     *       public static void main(String[] args) {
+     *           Eval e = new Eval();
+     * <p/>
+     *           try {
+     *               System.out.println(e.eval("cos(x+y)", "x=pi;y=2.34"));
+     *           } catch(Exception ex) {
+     *               // handle
+     *           }
+     *       }
+     *   }
+     * </pre>
+     * For efficiency, {@link #eval(String,Map)} method should be used instead of this method.
+     *
+     * @param exp       infix String expression to evaluate
+     * @param variables semicolon delimited variable=value pairs.
+     * @return a BigDecimal value
+     * @throws MathException when evaluation of the expression fails
+     */
+    public BigDecimal eval(String exp, String variables) throws MathException {
+        String temp = "";
+        StringTokenizer tok;
+        Map<String, String> map = new HashMap<>(1001);
+
+        if (exp == null || exp.equals("")) {
+            throw new MathException("First argument to method eval is null or empty string");
+        } else if (variables == null || variables.equals("")) {
+            return eval(exp);
+        }
+
+        try {
+            variables = skipSpaces(variables.toLowerCase());
+            tok = new StringTokenizer(variables, ";", false);
+            while (tok.hasMoreTokens()) {
+                temp = tok.nextToken();
+                map.put(temp.substring(0, temp.indexOf("=")), temp.substring(temp.indexOf("=") + 1));
+            }
+        } catch (StringIndexOutOfBoundsException e) {
+            throw new MathException("Syntax error ->" + variables);
+        } catch (Exception e) {
+            throw new MathException("Syntax error ->" + temp);
+        }
+
+        return eval(exp, map);
+    }
+
+    /**
+     * Evaluates the infix expression exp.
+     * <p/>
+     * This method can only evaluate expressions that have no variables.
+     * <p/>
+     * This is one of the publicly available methods of the class, it is an entry point into<br> the parser and the
+     * method you want to use when evaluating a String expression.
+     * <p/>
+     * Example:
+     * <pre>
+     *   import net.sf.intelliplugin.calc.math.*;
+     * <p/>
+     *   public class Test {
+     *       public static void main(String[] args) {
+     *           Eval e = new Eval();
+     * <p/>
+     *           try {
+     *               System.out.println(e.eval("12.3+pi"));
+     *           } catch(Exception ex) {
+     *               // handle
+     *           }
+     *       }
+     *   }
+     * </pre>
+     * Use one of the other eval methods if you need to have variables in the expression.
+     *
+     * @param exp the infix String expression to evaluate.
+     * @return a BigDecimal value.
+     * @throws MathException when evaluation of the expression fails
+     */
+    private BigDecimal eval(String exp) throws MathException {
+        return eval(exp, new HashMap<>(0));
+    }
+}
+
+
+
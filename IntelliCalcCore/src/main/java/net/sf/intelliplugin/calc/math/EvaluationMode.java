@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+/**
+ * The arithmetic used to evaluate an expression.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+public enum EvaluationMode {
+    /**
+     * Evaluates on {@link java.math.BigDecimal}, the default.
+     */
+    DECIMAL,
+
+    /**
+     * Evaluates on primitive <code>double</code> values following IEEE 754: invalid operations result in NaN and
+     * division by zero in infinity. Operators which need exact arithmetic (<code>fac</code>, <code>sfac</code>,
+     * <code>%</code> and comparisons of numbers beyond 2<sup>53</sup>) are still computed on BigDecimal.
+     */
+    DOUBLE,
+
+    /**
+     * Evaluates on intervals of primitive doubles enclosing the exact result. Only when the interval is too wide to
+     * guarantee the requested number of significant digits, the expression is evaluated on BigDecimal with increasing
+     * precision. The result is rounded to the requested digits.
+     * <p/>
+     * Operators which the decimal arithmetic computes on doubles, like <code>sin</code> or <code>ln</code>, limit the
+     * precision of the decimal evaluation to that of a double.
+     *
+     * @see Eval#compileAdaptive(String, int)
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of parse trees, keyed by the normalized expression.
+ * <p/>
+ * The cache is split in segments, each guarded by its own lock, so concurrent lookups of different expressions
+ * rarely contend. Every segment evicts its least recently used trees once it holds more than its share of the
+ * maximum number of trees. The maximum weight, the total number of nodes of all trees, is shared by the segments: once
+ * it is exceeded the least recently used trees of the whole cache are evicted, so a single large tree can use the
+ * weight of the entire cache.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class ExpressionCache {
+
+    private static final int MAXIMUM_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long maximumWeight;
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong clock = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize   the maximum number of trees in the cache
+     * @param maximumWeight the maximum number of nodes of all trees in the cache
+     */
+    ExpressionCache(int maximumSize, long maximumWeight) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("Maximum size must not be negative: " + maximumSize);
+        } else if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight must not be negative: " + maximumWeight);
+        }
+
+        int count = 1;
+        while (count < MAXIMUM_SEGMENTS && count * 2 <= maximumSize) {
+            count *= 2;
+        }
+
+        this.maximumWeight = maximumWeight;
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * @param expression the normalized expression
+     * @return the cached tree, or null if the expression is not cached
+     */
+    FlatTree get(String expression) {
+        FlatTree tree = segment(expression).get(expression);
+        if (tree == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return tree;
+    }
+
+    /**
+     * Caches the tree of an expression, evicting the least recently used trees if the cache grows too large. A tree
+     * that is too large to ever fit the cache is not cached.
+     *
+     * @param expression the normalized expression
+     * @param tree       the parse tree of the expression
+     */
+    void put(String expression, FlatTree tree) {
+        long treeWeight = tree.size();
+        if (treeWeight > maximumWeight) {
+            return;
+        }
+
+        segment(expression).put(expression, tree, treeWeight);
+        while (weight.get() > maximumWeight && evictEldest()) {
+            // evict until the trees fit again
+        }
+    }
+
+    /**
+     * Evicts the least recently used tree of all segments. The segments are locked one at a time, a tree used or
+     * evicted concurrently is simply looked up again by the caller.
+     *
+     * @return false if the cache is empty
+     */
+    private boolean evictEldest() {
+        Segment eldest = null;
+        long eldestTick = Long.MAX_VALUE;
+        for (Segment segment : segments) {
+            long tick = segment.eldestTick();
+            if (tick < eldestTick) {
+                eldest = segment;
+                eldestTick = tick;
+            }
+        }
+        if (eldest == null) {
+            return false;
+        }
+        eldest.evict(eldestTick);
+        return true;
+    }
+
+    /**
+     * Removes all trees from the cache. The statistics are kept.
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return a snapshot of the statistics of this cache
+     */
+    CacheStatistics statistics() {
+        int size = 0;
+        long weight = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+            weight += segment.weight();
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size, weight);
+    }
+
+    private Segment segment(String expression) {
+        int hash = expression.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private static final class Entry {
+        private final FlatTree tree;
+        private final long weight;
+        private long tick;
+
+        private Entry(FlatTree tree, long weight, long tick) {
+            this.tree = tree;
+            this.weight = weight;
+            this.tick = tick;
+        }
+    }
+
+    private final class Segment {
+        private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private final int maximumSize;
+        private long weight;
+
+        private Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        private synchronized FlatTree get(String expression) {
+            Entry entry = entries.get(expression);
+            if (entry == null) {
+                return null;
+            }
+            entry.tick = clock.incrementAndGet();
+            return entry.tree;
+        }
+
+        private synchronized void put(String expression, FlatTree tree, long treeWeight) {
+            if (maximumSize == 0) {
+                return;
+            }
+
+            Entry previous = entries.put(expression, new Entry(tree, treeWeight, clock.incrementAndGet()));
+            add(treeWeight - (previous == null ? 0 : previous.weight));
+
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (entries.size() > maximumSize) {
+                remove(eldest, eldest.next());
+            }
+        }
+
+        /**
+         * @return the last use of the least recently used tree of this segment, {@link Long#MAX_VALUE} if it is empty
+         */
+        private synchronized long eldestTick() {
+            Iterator<Entry> eldest = entries.values().iterator();
+            return eldest.hasNext() ? eldest.next().tick : Long.MAX_VALUE;
+        }
+
+        /**
+         * Evicts the least recently used tree of this segment, unless it was used since its last use was looked up.
+         *
+         * @param tick the last use of the tree to evict
+         */
+        private synchronized void evict(long tick) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            if (eldest.hasNext()) {
+                Entry entry = eldest.next();
+                if (entry.tick == tick) {
+                    remove(eldest, entry);
+                }
+            }
+        }
+
+        /**
+         * Evicts the tree last returned by the iterator.
+         *
+         * @param eldest an iterator over the entries of this segment
+         * @param entry  the entry last returned by the iterator
+         */
+        private void remove(Iterator<Entry> eldest, Entry entry) {
+            eldest.remove();
+            add(-entry.weight);
+            evictions.increment();
+        }
+
+        /**
+         * @param delta the change of the number of nodes of this segment, also applied to the whole cache
+         */
+        private void add(long delta) {
+            weight += delta;
+            ExpressionCache.this.weight.addAndGet(delta);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        private synchronized long weight() {
+            return weight;
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+            add(-weight);
+        }
+    }
+}
@@ -0,0 +1,386 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parse tree flattened into parallel int arrays and a constant pool. This is the form in which parsed expressions are
+ * cached, it takes a fraction of the memory of a tree of {@link Node}s.
+ * <p/>
+ * Every node has a code, the ordinal of its {@link Opcode} or {@link #CONSTANT} or {@link #VARIABLE}, and two
+ * arguments. The arguments of an operator are the indices of its argument nodes, the first argument of a constant or
+ * variable is its index in the constant or name pool. The nodes are stored in post-order: the arguments of a node
+ * always precede it, so a tree is evaluated by a single forward loop over the arrays. Equal subtrees are stored once.
+ * Different trees share nothing, every tree owns its arrays so the cache can evict it on its own.
+ * <p/>
+ * The right hand side of <code>&amp;&amp;</code> and <code>||</code> is preceded by a {@link #BRANCH} node, which
+ * skips the right hand side once the left hand side decides the result. Nodes within a skipped range are not shared
+ * with nodes outside of it.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class FlatTree {
+
+    /**
+     * The code of a constant, its first argument is its index in the constant pool.
+     */
+    static final int CONSTANT = -1;
+
+    /**
+     * The code of a variable, its first argument is its index in the name pool.
+     */
+    static final int VARIABLE = -2;
+
+    /**
+     * The code of a conditional jump over the right hand side of <code>&amp;&amp;</code> or <code>||</code>. The first
+     * argument is the index of the left hand side, the second the index of the operator node. A first argument of -1
+     * is an unconditional jump to the second argument.
+     */
+    static final int BRANCH = -3;
+
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    private final int[] codes;
+    private final int[] args1;
+    private final int[] args2;
+    private final BigDecimal[] constants;
+    private final String[] names;
+    private final int root;
+
+    private FlatTree(int[] codes, int[] args1, int[] args2, BigDecimal[] constants, String[] names, int root) {
+        this.codes = codes;
+        this.args1 = args1;
+        this.args2 = args2;
+        this.constants = constants;
+        this.names = names;
+        this.root = root;
+    }
+
+    /**
+     * @param tree the parse tree to flatten
+     * @return the flattened tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    static FlatTree of(Node tree) throws MathException {
+        return new Builder().build(tree);
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    int size() {
+        return codes.length;
+    }
+
+    /**
+     * @return the index of the root node, which is the last node
+     */
+    int root() {
+        return root;
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the code of the node
+     */
+    int code(int node) {
+        return codes[node];
+    }
+
+    /**
+     * @param node the index of an operator node
+     * @return the opcode of the node
+     */
+    Opcode opcode(int node) {
+        return OPCODES[codes[node]];
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the index of the first argument of the node
+     */
+    int arg1(int node) {
+        return args1[node];
+    }
+
+    /**
+     * @param node the index of a node
+     * @return the index of the second argument of the node, -1 if the node has a single argument
+     */
+    int arg2(int node) {
+        return args2[node];
+    }
+
+    /**
+     * @param node the index of a constant node
+     * @return the value of the constant
+     */
+    BigDecimal constant(int node) {
+        return constants[args1[node]];
+    }
+
+    /**
+     * @param node the index of a variable node
+     * @return the name of the variable
+     */
+    String variable(int node) {
+        return names[args1[node]];
+    }
+
+    /**
+     * @return the names of all variables, special constants included, in the order in which they first appear
+     */
+    List<String> variables() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @return the number of nodes on the longest path from the root to a leaf
+     */
+    int depth() {
+        int[] depths = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            if (codes[i] >= 0) {
+                depths[i] = 1 + Math.max(depths[args1[i]], args2[i] < 0 ? 0 : depths[args2[i]]);
+            } else if (codes[i] != BRANCH) {
+                depths[i] = 1;
+            }
+        }
+        return depths[root];
+    }
+
+    /**
+     * Rebuilds the tree of {@link Node}s. Equal subtrees share a single node.
+     *
+     * @return the root of the tree
+     */
+    Node toNode() {
+        Node[] nodes = new Node[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            switch (codes[i]) {
+                case CONSTANT:
+                    nodes[i] = new Node(constant(i));
+                    break;
+                case VARIABLE:
+                    nodes[i] = new Node(variable(i));
+                    break;
+                case BRANCH:
+                    break;
+                default:
+                    nodes[i] = args2[i] < 0 ? new Node(opcode(i), nodes[args1[i]])
+                                            : new Node(opcode(i), nodes[args1[i]], nodes[args2[i]]);
+            }
+        }
+        return nodes[root];
+    }
+
+    /**
+     * Flattens a tree in post-order, without recursion.
+     */
+    private static final class Builder {
+
+        private int[] codes = new int[16];
+        private int[] args1 = new int[16];
+        private int[] args2 = new int[16];
+        /**
+         * The index of the branch starting the innermost range the node is in, -1 if the node is always evaluated.
+         */
+        private int[] ranges = new int[16];
+        private int size;
+
+        /**
+         * The branches whose range has ended, nodes within these ranges can no longer be shared.
+         */
+        private final BitSet closed = new BitSet();
+        private final Deque<Integer> open = new ArrayDeque<>();
+
+        private final Map<BigDecimal, Integer> constants = new HashMap<>();
+        private final Map<String, Integer> names = new HashMap<>();
+        private final Map<Node, Integer> indices = new IdentityHashMap<>();
+        /**
+         * Open addressing hash table of node index + 1, keyed on code and arguments.
+         */
+        private int[] table = new int[32];
+
+        private FlatTree build(Node tree) throws MathException {
+            Deque<Node> nodes = new ArrayDeque<>();
+            // per pushed node: the number of the argument being flattened, the index of the first argument and the
+            // index of the branch over the second argument
+            Deque<int[]> states = new ArrayDeque<>();
+            int result = visit(tree, nodes, states);
+
+            while (!nodes.isEmpty()) {
+                Node node = nodes.peek();
+                int[] state = states.peek();
+                Opcode op = node.getOpcode();
+                boolean conditional = op == Opcode.AND || op == Opcode.OR;
+
+                int index;
+                if (state[0] == 0) {
+                    state[0] = 1;
+                    result = visit(node.arg1(), nodes, states);
+                    continue;
+                } else if (state[0] == 1 && node.arguments() == 2) {
+                    state[0] = 2;
+                    state[1] = result;
+                    if (conditional) {
+                        state[2] = add(BRANCH, result, -1);
+                        open.push(state[2]);
+                    }
+                    result = visit(node.arg2(), nodes, states);
+                    continue;
+                } else if (state[0] == 1) {
+                    index = emit(op.ordinal(), result, -1);
+                } else if (conditional) {
+                    open.pop();
+                    closed.set(state[2]);
+                    index = emit(op.ordinal(), state[1], result);
+                    if (index > state[2]) {
+                        args2[state[2]] = index;
+                    } else {
+                        // an equal node exists, jump over the unused right hand side
+                        args1[state[2]] = -1;
+                        args2[state[2]] = size - 1;
+                    }
+                } else {
+                    index = emit(op.ordinal(), state[1], result);
+                }
+
+                indices.put(node, index);
+                nodes.pop();
+                states.pop();
+                result = index;
+            }
+
+            BigDecimal[] constantPool = new BigDecimal[constants.size()];
+            constants.forEach((value, i) -> constantPool[i] = value);
+            String[] namePool = new String[names.size()];
+            names.forEach((name, i) -> namePool[i] = name);
+            return new FlatTree(Arrays.copyOf(codes, size), Arrays.copyOf(args1, size), Arrays.copyOf(args2, size),
+                                constantPool, namePool, result);
+        }
+
+        /**
+         * @return the index of the node, or -1 if the node is an operator which has been pushed to be flattened
+         * @throws MathException if the node has an unknown operator
+         */
+        private int visit(Node node, Deque<Node> nodes, Deque<int[]> states) throws MathException {
+            switch (node.getType()) {
+                case CONSTANT:
+                    Integer constant = constants.computeIfAbsent(node.getValue(), value -> constants.size());
+                    return emit(CONSTANT, constant, -1);
+                case VARIABLE:
+                    Integer name = names.computeIfAbsent(node.getVariable(), variable -> names.size());
+                    return emit(VARIABLE, name, -1);
+            }
+
+            Integer index = indices.get(node);
+            if (index != null && isAvailable(index)) {
+                return index;
+            } else if (node.getOpcode() == null) {
+                throw new MathException("Unknown operator");
+            }
+            nodes.push(node);
+            states.push(new int[]{0, -1, -1});
+            return -1;
+        }
+
+        /**
+         * @return true if the node may be used as an argument of the node being flattened
+         */
+        private boolean isAvailable(int index) {
+            return ranges[index] < 0 || !closed.get(ranges[index]);
+        }
+
+        /**
+         * @return the index of an equal node which may be shared, or the index of the added node
+         */
+        private int emit(int code, int arg1, int arg2) {
+            int mask = table.length - 1;
+            int slot = hash(code, arg1, arg2) & mask;
+            for (int entry; (entry = table[slot]) != 0; slot = (slot + 1) & mask) {
+                int i = entry - 1;
+                if (codes[i] == code && args1[i] == arg1 && args2[i] == arg2) {
+                    if (isAvailable(i)) {
+                        return i;
+                    }
+                    // the equal node is in a range which may be skipped, replace it by a new node
+                    break;
+                }
+            }
+
+            int index = add(code, arg1, arg2);
+            table[slot] = index + 1;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return index;
+        }
+
+        private int add(int code, int arg1, int arg2) {
+            if (size == codes.length) {
+                int length = size * 2;
+                codes = Arrays.copyOf(codes, length);
+                args1 = Arrays.copyOf(args1, length);
+                args2 = Arrays.copyOf(args2, length);
+                ranges = Arrays.copyOf(ranges, length);
+            }
+            codes[size] = code;
+            args1[size] = arg1;
+            args2[size] = arg2;
+            ranges[size] = open.isEmpty() ? -1 : open.peek();
+            return size++;
+        }
+
+        private void rehash() {
+            int[] old = table;
+            table = new int[old.length * 2];
+            int mask = table.length - 1;
+            for (int entry : old) {
+                if (entry != 0) {
+                    int i = entry - 1;
+                    int slot = hash(codes[i], args1[i], args2[i]) & mask;
+                    while (table[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = entry;
+                }
+            }
+        }
+
+        private static int hash(int code, int arg1, int arg2) {
+            int h = (code * 31 + arg1) * 31 + arg2;
+            return h ^ (h >>> 16);
+        }
+    }
+}
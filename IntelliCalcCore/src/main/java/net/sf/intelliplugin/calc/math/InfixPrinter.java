@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Prints expression trees as infix expressions which are parsed back into the same value, using as few parenthesis as
+ * the operator precedence allows. A negative constant or a product with a negative constant factor is printed with a
+ * leading minus sign (<code>-2*x</code>).
+ * <p/>
+ * The tree is printed with an explicit stack, so the depth of a tree is only bounded by the heap.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class InfixPrinter {
+
+    /**
+     * The precedence of constants, variables and functions, which never need parenthesis.
+     */
+    private static final int OPERAND = 0;
+
+    /**
+     * The precedence of a leading minus sign, the precedence of a binary minus.
+     */
+    private static final int SIGN = 6;
+
+    private final Map<String, Operator> operators;
+
+    /**
+     * @param operators the operator table, giving the precedence of every operator
+     */
+    InfixPrinter(Map<String, Operator> operators) {
+        this.operators = operators;
+    }
+
+    /**
+     * @param tree the tree to print
+     * @return the infix expression
+     */
+    String print(Node tree) {
+        StringBuilder sb = new StringBuilder();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(tree);
+
+        while (!pending.isEmpty()) {
+            Object item = pending.pop();
+            if (item instanceof String) {
+                sb.append((String) item);
+                continue;
+            }
+
+            Node node = (Node) item;
+            Node magnitude = magnitude(node);
+            if (magnitude != null) {
+                push(pending, magnitude, precedence(magnitude) >= SIGN);
+                pending.push("-");
+            } else if (node.getType() == NodeType.CONSTANT) {
+                sb.append(node.getValue().toPlainString());
+            } else if (node.getType() == NodeType.VARIABLE) {
+                sb.append(node.getVariable());
+            } else if (node.arguments() == 1) {
+                pending.push(")");
+                pending.push(node.arg1());
+                pending.push(node.getOperator() + "(");
+            } else {
+                push(pending, node.arg2(), isRightParenthesized(node, node.arg2()));
+                pending.push(node.getOperator());
+                push(pending, node.arg1(), isLeftParenthesized(node, node.arg1()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void push(Deque<Object> pending, Node node, boolean parenthesis) {
+        if (parenthesis) {
+            pending.push(")");
+            pending.push(node);
+            pending.push("(");
+        } else {
+            pending.push(node);
+        }
+    }
+
+    private boolean isLeftParenthesized(Node parent, Node arg) {
+        int precedence = precedence(parent);
+        if (magnitude(arg) != null) {
+            // -a*b and -a/b have the value of -(a*b) and -(a/b), but -a^b is not (-a)^b
+            return precedence < SIGN && !isOperator(parent, "*") && !isOperator(parent, "/");
+        }
+        return precedence(arg) > precedence;
+    }
+
+    private boolean isRightParenthesized(Node parent, Node arg) {
+        int precedence = precedence(parent);
+        Node magnitude = magnitude(arg);
+        if (magnitude != null) {
+            // the sign only applies to the operators binding tighter than the parent
+            int signed = precedence(magnitude) >= SIGN ? OPERAND : precedence(magnitude);
+            return isOperator(parent, "+") || isOperator(parent, "-") || signed >= precedence;
+        } else if (precedence(arg) != precedence) {
+            return precedence(arg) > precedence;
+        }
+        // all operators are left associative, only a+(b-c) and a*(b/c) can drop the parenthesis
+        return !(isOperator(parent, "+") && (isOperator(arg, "+") || isOperator(arg, "-"))
+                 || isOperator(parent, "*") && (isOperator(arg, "*") || isOperator(arg, "/")));
+    }
+
+    /**
+     * @param node a tree
+     * @return the precedence of the tree as an operand
+     */
+    private int precedence(Node node) {
+        if (magnitude(node) != null) {
+            return SIGN;
+        } else if (node.getType() != NodeType.EXPRESSION || node.arguments() == 1) {
+            return OPERAND;
+        }
+        Operator operator = operators.get(node.getOperator());
+        return operator == null ? Integer.MAX_VALUE : operator.precedence();
+    }
+
+    /**
+     * @param node a tree
+     * @return the tree without its minus sign if it is printed with a leading minus sign, null otherwise
+     */
+    private static Node magnitude(Node node) {
+        if (node.getType() == NodeType.CONSTANT && node.getValue().signum() < 0) {
+            return new Node(node.getValue().negate());
+        } else if (isOperator(node, "*") && node.arg1().getType() == NodeType.CONSTANT
+                   && node.arg1().getValue().signum() < 0) {
+            BigDecimal factor = node.arg1().getValue().negate();
+            return factor.compareTo(BigDecimal.ONE) == 0
+                   ? node.arg2()
+                   : new Node(Opcode.MULTIPLY, new Node(factor), node.arg2());
+        }
+        return null;
+    }
+
+    private static boolean isOperator(Node node, String operator) {
+        return node.getType() == NodeType.EXPRESSION && node.getOperator().equals(operator);
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A closed interval of doubles enclosing the exact value of a (sub)expression. Every operation rounds its bounds
+ * outwards, so the exact result of an operation on values within the argument intervals is always within the result
+ * interval. An operation whose result can not be bounded or which may fail on BigDecimal, such as a division by an
+ * interval containing zero, results in the {@link #UNKNOWN} interval.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ * @see EvaluationMode#ADAPTIVE
+ */
+final class Interval {
+
+    /**
+     * The result of operations which can not be bounded. Every operation on an unknown argument is unknown as well.
+     */
+    static final Interval UNKNOWN = new Interval(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+    static final Interval FALSE = new Interval(0, 0);
+    static final Interval TRUE = new Interval(1, 1);
+
+    /**
+     * The result of a logical operator which can not be decided on the intervals of its arguments.
+     */
+    static final Interval UNDECIDED = new Interval(0, 1);
+
+    /**
+     * Integers of up to 15 digits are represented exactly by a double.
+     */
+    private static final int EXACT_DIGITS = 15;
+
+    /**
+     * The maximum error of the hyperbolic functions of {@link StrictMath}, in units in the last place.
+     */
+    static final int HYPERBOLIC_ULPS = 3;
+
+    private final double lo;
+    private final double hi;
+
+    private Interval(double lo, double hi) {
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    /**
+     * @param lo the lower bound
+     * @param hi the upper bound
+     * @return the interval, {@link #UNKNOWN} if a bound is NaN
+     */
+    static Interval of(double lo, double hi) {
+        if (Double.isNaN(lo) || Double.isNaN(hi)) {
+            return UNKNOWN;
+        }
+        return new Interval(lo, hi);
+    }
+
+    /**
+     * @param value an exact value
+     * @return the interval holding only the value
+     */
+    static Interval of(double value) {
+        return of(value, value);
+    }
+
+    /**
+     * @param value a decimal value, null representing NaN
+     * @return an interval of doubles enclosing the value, a single double if the value is a small integer
+     */
+    static Interval of(BigDecimal value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        double nearest = value.doubleValue();
+        if (Double.isInfinite(nearest)) {
+            return nearest > 0 ? of(Double.MAX_VALUE, nearest) : of(nearest, -Double.MAX_VALUE);
+        } else if (value.signum() == 0 || value.scale() <= 0 && value.precision() <= EXACT_DIGITS) {
+            return of(nearest);
+        }
+        // the nearest double is at most half an ulp away
+        return of(Math.nextDown(nearest), Math.nextUp(nearest));
+    }
+
+    double lo() {
+        return lo;
+    }
+
+    double hi() {
+        return hi;
+    }
+
+    boolean isPoint() {
+        return lo == hi;
+    }
+
+    boolean contains(double value) {
+        return lo <= value && value <= hi;
+    }
+
+    /**
+     * Rounds both bounds to a number of significant digits.
+     *
+     * @param context the number of digits and the rounding mode
+     * @return the value every number within the interval rounds to, or null if the bounds round to different values
+     */
+    BigDecimal round(MathContext context) {
+        if (Double.isInfinite(lo) || Double.isInfinite(hi)) {
+            return null;
+        } else if (isPoint()) {
+            return new BigDecimal(lo).round(context);
+        } else if (lo <= 0 && hi >= 0) {
+            // the number of significant digits of a value close to zero is unknown
+            return null;
+        } else if (hi - lo > Math.min(Math.abs(lo), Math.abs(hi)) * Math.pow(10, 1 - context.getPrecision())) {
+            // wider than the difference between two numbers of that many digits
+            return null;
+        }
+
+        BigDecimal value = new BigDecimal(lo).round(context);
+        return value.compareTo(new BigDecimal(hi).round(context)) == 0 ? value : null;
+    }
+
+    static Interval add(Interval a, Interval b) {
+        return of(down(a.lo + b.lo), up(a.hi + b.hi));
+    }
+
+    static Interval subtract(Interval a, Interval b) {
+        return of(down(a.lo - b.hi), up(a.hi - b.lo));
+    }
+
+    static Interval multiply(Interval a, Interval b) {
+        double p1 = a.lo * b.lo;
+        double p2 = a.lo * b.hi;
+        double p3 = a.hi * b.lo;
+        double p4 = a.hi * b.hi;
+        return of(down(Math.min(Math.min(p1, p2), Math.min(p3, p4))),
+                  up(Math.max(Math.max(p1, p2), Math.max(p3, p4))));
+    }
+
+    static Interval divide(Interval a, Interval b) {
+        if (b.contains(0)) {
+            return UNKNOWN;
+        }
+        double q1 = a.lo / b.lo;
+        double q2 = a.lo / b.hi;
+        double q3 = a.hi / b.lo;
+        double q4 = a.hi / b.hi;
+        return of(down(Math.min(Math.min(q1, q2), Math.min(q3, q4))),
+                  up(Math.max(Math.max(q1, q2), Math.max(q3, q4))));
+    }
+
+    static Interval sqrt(Interval a) {
+        // like BigMath.sqrt, which only accepts positive numbers
+        if (a.lo <= 0) {
+            return UNKNOWN;
+        }
+        return of(down(Math.sqrt(a.lo)), up(Math.sqrt(a.hi)));
+    }
+
+    static Interval abs(Interval a) {
+        if (a.lo >= 0) {
+            return a;
+        } else if (a.hi <= 0) {
+            return of(-a.hi, -a.lo);
+        }
+        return of(0, Math.max(-a.lo, a.hi));
+    }
+
+    /**
+     * Applies a non-decreasing function.
+     *
+     * @param a        the argument
+     * @param function the function
+     * @param ulps     the maximum error of the function, in units in the last place
+     * @return the enclosure of the function values
+     */
+    static Interval increasing(Interval a, DoubleUnaryOperator function, int ulps) {
+        return hull(pointwise(function.applyAsDouble(a.lo), ulps), pointwise(function.applyAsDouble(a.hi), ulps));
+    }
+
+    /**
+     * Applies a non-increasing function.
+     *
+     * @param a        the argument
+     * @param function the function
+     * @param ulps     the maximum error of the function, in units in the last place
+     * @return the enclosure of the function values
+     */
+    static Interval decreasing(Interval a, DoubleUnaryOperator function, int ulps) {
+        return hull(pointwise(function.applyAsDouble(a.hi), ulps), pointwise(function.applyAsDouble(a.lo), ulps));
+    }
+
+    /**
+     * @param lo the enclosure of the lowest value
+     * @param hi the enclosure of the highest value
+     * @return the interval from the lowest to the highest value
+     */
+    private static Interval hull(Interval lo, Interval hi) {
+        if (lo == UNKNOWN || hi == UNKNOWN) {
+            return UNKNOWN;
+        }
+        return of(lo.lo, hi.hi);
+    }
+
+    /**
+     * Applies a non-decreasing function whose values are exact, like <code>floor</code>.
+     *
+     * @param a        the argument
+     * @param function the function
+     * @return the function values
+     */
+    static Interval step(Interval a, DoubleUnaryOperator function) {
+        return of(function.applyAsDouble(a.lo), function.applyAsDouble(a.hi));
+    }
+
+    /**
+     * Applies a function with values in [-1, 1] whose slope is at most 1, like sine and cosine. The function is
+     * computed within one ulp at the midpoint of the interval, and can not change more than the distance to the
+     * midpoint.
+     *
+     * @param a        the argument
+     * @param function the function
+     * @return the enclosure of the function values
+     */
+    static Interval periodic(Interval a, DoubleUnaryOperator function) {
+        double mid = a.lo + (a.hi - a.lo) / 2;
+        double radius = up(Math.max(up(a.hi - mid), up(mid - a.lo)));
+        if (Double.isNaN(radius) || Double.isInfinite(radius) || radius >= 1) {
+            return of(-1, 1);
+        }
+        double value = function.applyAsDouble(mid);
+        radius = up(radius + Math.ulp(value));
+        return of(Math.max(-1, down(value - radius)), Math.min(1, up(value + radius)));
+    }
+
+    static Interval cosh(Interval a) {
+        if (a.lo >= 0) {
+            return increasing(a, StrictMath::cosh, HYPERBOLIC_ULPS);
+        } else if (a.hi <= 0) {
+            return decreasing(a, StrictMath::cosh, HYPERBOLIC_ULPS);
+        }
+        return hull(of(1), pointwise(StrictMath.cosh(Math.max(-a.lo, a.hi)), HYPERBOLIC_ULPS));
+    }
+
+    /**
+     * Raises a positive base to a power. The power is monotonic in both arguments, its extremes are found at the
+     * corners.
+     *
+     * @param a the base
+     * @param b the exponent
+     * @return the enclosure of the powers
+     */
+    static Interval pow(Interval a, Interval b) {
+        if (a.isPoint() && b.isPoint()) {
+            return pointwise(StrictMath.pow(a.lo, b.lo), 1);
+        } else if (a.lo <= 0) {
+            return UNKNOWN;
+        }
+        double p1 = StrictMath.pow(a.lo, b.lo);
+        double p2 = StrictMath.pow(a.lo, b.hi);
+        double p3 = StrictMath.pow(a.hi, b.lo);
+        double p4 = StrictMath.pow(a.hi, b.hi);
+        if (Double.isInfinite(Math.max(Math.max(p1, p2), Math.max(p3, p4)))) {
+            return UNKNOWN;
+        }
+        return of(down(Math.min(Math.min(p1, p2), Math.min(p3, p4))),
+                  up(Math.max(Math.max(p1, p2), Math.max(p3, p4))));
+    }
+
+    /**
+     * @param value the result of an operation on exact arguments
+     * @param ulps  the maximum error of the operation, in units in the last place
+     * @return the enclosure of the exact result, {@link #UNKNOWN} if the result is not a finite number
+     */
+    static Interval pointwise(double value, int ulps) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return UNKNOWN;
+        }
+        double lo = value;
+        double hi = value;
+        for (int i = 0; i < ulps; i++) {
+            lo = down(lo);
+            hi = up(hi);
+        }
+        return of(lo, hi);
+    }
+
+    /**
+     * @param a the argument of a logical operator
+     * @return true if every value of the interval is true
+     */
+    static boolean isTrue(Interval a) {
+        return a.lo == 1 && a.hi == 1;
+    }
+
+    /**
+     * @param a the argument of a logical operator
+     * @return true if no value of the interval is true
+     */
+    static boolean isFalse(Interval a) {
+        return !a.contains(1);
+    }
+
+    /**
+     * Compares two intervals.
+     *
+     * @param a the first interval
+     * @param b the second interval
+     * @return -1 or 1 if every value of a is less or greater than every value of b, 0 if both hold the same single
+     * value and 2 if the order can not be decided
+     */
+    static int compare(Interval a, Interval b) {
+        if (a.hi < b.lo) {
+            return -1;
+        } else if (a.lo > b.hi) {
+            return 1;
+        } else if (a.isPoint() && b.isPoint()) {
+            return 0;
+        }
+        return 2;
+    }
+
+    private static double down(double value) {
+        return Math.nextDown(value);
+    }
+
+    private static double up(double value) {
+        return Math.nextUp(value);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + lo + ", " + hi + "]";
+    }
+}
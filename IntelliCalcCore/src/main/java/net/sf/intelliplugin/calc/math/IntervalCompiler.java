@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compiles a tree of {@link Node}s into a tree of {@link CompiledInterval}s, enclosing the exact value of every node
+ * in an {@link Interval} of doubles.
+ * <p/>
+ * The intervals follow the semantics of the decimal arithmetic: an operation which fails on BigDecimal, like a
+ * division by zero, results in the {@link Interval#UNKNOWN} interval so the expression is evaluated again on
+ * BigDecimal. The remainder is only computed for arguments which are exact doubles, the factorials are always left to
+ * the decimal arithmetic.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ * @see EvaluationMode#ADAPTIVE
+ */
+final class IntervalCompiler {
+
+    private static final Interval PI = Interval.of(BigMath.pi(Eval.DEFAULT_MATH_CONTEXT));
+    private static final Interval ONE_EIGHTY = Interval.of(180);
+    private static final Interval TWO_HUNDRED = Interval.of(200);
+
+    /**
+     * Values closer to zero than this may have the wrong sign when computed by {@link StrictMath}.
+     */
+    private static final double SIGN_MARGIN = 0x1p-30;
+
+    private final Map<String, BigDecimal> constants;
+
+    /**
+     * @param constants the special constants known by the evaluator
+     */
+    IntervalCompiler(Map<String, BigDecimal> constants) {
+        this.constants = constants;
+    }
+
+    /**
+     * @param tree      the parse tree to compile
+     * @param variables the slots of the variables of the tree
+     * @return the compiled tree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    CompiledInterval compile(Node tree, Variables variables) throws MathException {
+        return compile(tree, variables, Compiler.references(tree), new IdentityHashMap<>(), new IdentityHashMap<>());
+    }
+
+    /**
+     * Compiles a subtree. A node shared by several parents is compiled once and its enclosure is memoized during
+     * evaluation.
+     *
+     * @param tree       the subtree to compile
+     * @param variables  the slots of the variables of the tree
+     * @param references the number of parents of each node
+     * @param compiled   the nodes compiled so far
+     * @param slots      the memo slot of each shared node compiled so far
+     * @return the compiled subtree
+     * @throws MathException if the tree contains an unknown operator
+     */
+    private CompiledInterval compile(Node tree, Variables variables, Map<Node, Integer> references,
+                                     Map<Node, CompiledInterval> compiled, Map<Node, Integer> slots)
+            throws MathException {
+        switch (tree.getType()) {
+            case CONSTANT:
+                Interval value = Interval.of(tree.getValue());
+                return scope -> value;
+            case VARIABLE:
+                String name = tree.getVariable();
+                if (constants.containsKey(name)) {
+                    Interval constant = Interval.of(constants.get(name));
+                    return scope -> constant;
+                }
+                int slot = variables.slot(name);
+                return scope -> scope.interval(slot, name);
+        }
+
+        CompiledInterval node = compiled.get(tree);
+        if (node != null) {
+            return node;
+        }
+
+        CompiledInterval arg1 = compile(tree.arg1(), variables, references, compiled, slots);
+        if (tree.arguments() == 2) {
+            node = binary(tree.getOpcode(), arg1, compile(tree.arg2(), variables, references, compiled, slots));
+        } else {
+            node = unary(tree.getOpcode(), arg1);
+        }
+
+        if (references.getOrDefault(tree, 0) > 1) {
+            CompiledInterval shared = node;
+            int slot = slots.size();
+            slots.put(tree, slot);
+            node = scope -> scope.memoize(slot, shared);
+        }
+        compiled.put(tree, node);
+        return node;
+    }
+
+    private CompiledInterval binary(Opcode op, CompiledInterval arg1, CompiledInterval arg2) throws MathException {
+        if (op == Opcode.AND || op == Opcode.OR) {
+            boolean or = op == Opcode.OR;
+            return scope -> {
+                Interval a = arg1.evaluate(scope);
+                if (or ? Interval.isTrue(a) : Interval.isFalse(a)) {
+                    return or ? Interval.TRUE : Interval.FALSE;
+                } else if (!Interval.isTrue(a) && !Interval.isFalse(a)) {
+                    // the decimal arithmetic may or may not evaluate the second argument, which may fail
+                    return Interval.UNKNOWN;
+                }
+                return logical(arg2.evaluate(scope));
+            };
+        }
+
+        BinaryOperator<Interval> operation = binaryOperation(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return scope -> {
+            Interval a = arg1.evaluate(scope);
+            Interval b = arg2.evaluate(scope);
+            return a == Interval.UNKNOWN || b == Interval.UNKNOWN ? Interval.UNKNOWN : operation.apply(a, b);
+        };
+    }
+
+    private CompiledInterval unary(Opcode op, CompiledInterval arg) throws MathException {
+        UnaryOperator<Interval> operation = unaryOperation(op);
+        if (operation == null) {
+            throw new MathException("Unknown operator");
+        }
+        return scope -> {
+            Interval a = arg.evaluate(scope);
+            return a == Interval.UNKNOWN ? Interval.UNKNOWN : operation.apply(a);
+        };
+    }
+
+    /**
+     * @param op the operator
+     * @return the operation applying the two argument operator, or null if the operator is unknown or is
+     * <code>&amp;&amp;</code> or <code>||</code>
+     */
+    private static BinaryOperator<Interval> binaryOperation(Opcode op) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case ADD:
+                return Interval::add;
+            case SUBTRACT:
+                return Interval::subtract;
+            case MULTIPLY:
+                return Interval::multiply;
+            case DIVIDE:
+                return Interval::divide;
+            case POWER:
+                return Interval::pow;
+            case LOG:
+                return IntervalCompiler::log;
+            case REMAINDER:
+                return IntervalCompiler::remainder;
+            case EQUAL:
+                return comparison(c -> c == 0);
+            case NOT_EQUAL:
+                return comparison(c -> c != 0);
+            case LESS:
+                return comparison(c -> c < 0);
+            case GREATER:
+                return comparison(c -> c > 0);
+            case GREATER_OR_EQUAL:
+                return comparison(c -> c >= 0);
+            case LESS_OR_EQUAL:
+                return comparison(c -> c <= 0);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param op the operator
+     * @return the operation applying the single argument operator, or null if the operator is unknown
+     */
+    private static UnaryOperator<Interval> unaryOperation(Opcode op) {
+        if (op == null) {
+            return null;
+        }
+        switch (op) {
+            case SQRT:
+                return Interval::sqrt;
+            case SIN:
+                return a -> Interval.periodic(a, StrictMath::sin);
+            case COS:
+                return a -> Interval.periodic(a, StrictMath::cos);
+            case TAN:
+                return IntervalCompiler::tan;
+            case ASIN:
+                return a -> Interval.increasing(a, StrictMath::asin, 1);
+            case ACOS:
+                return a -> Interval.decreasing(a, StrictMath::acos, 1);
+            case ATAN:
+                return a -> Interval.increasing(a, StrictMath::atan, 1);
+            case LN:
+                return a -> Interval.increasing(a, StrictMath::log, 1);
+            case EXP:
+                return a -> Interval.increasing(a, StrictMath::exp, 1);
+            case COTAN:
+                return IntervalCompiler::cotan;
+            case ACOTAN:
+                return IntervalCompiler::acotan;
+            case CEIL:
+                return a -> Interval.step(a, StrictMath::ceil);
+            case ROUND:
+                return a -> Interval.step(a, StrictMath::round);
+            case FLOOR:
+                return a -> Interval.step(a, StrictMath::floor);
+            case FAC:
+            case SFAC:
+                // the decimal factorials only accept arguments with a scale of 0, which an interval does not keep
+                return a -> Interval.UNKNOWN;
+            case ABS:
+                return Interval::abs;
+            case FPART:
+                return IntervalCompiler::fpart;
+            case SINH:
+                return a -> Interval.increasing(a, StrictMath::sinh, Interval.HYPERBOLIC_ULPS);
+            case COSH:
+                return Interval::cosh;
+            case TANH:
+                return a -> Interval.increasing(a, StrictMath::tanh, Interval.HYPERBOLIC_ULPS);
+            case NOT:
+                return a -> Interval.isTrue(a) ? Interval.FALSE : Interval.isFalse(a) ? Interval.TRUE
+                        : Interval.UNDECIDED;
+            case DEG2RAD:
+                return a -> Interval.divide(Interval.multiply(a, PI), ONE_EIGHTY);
+            case DEG2GRAD:
+                return a -> Interval.divide(Interval.multiply(a, TWO_HUNDRED), ONE_EIGHTY);
+            case RAD2DEG:
+                return a -> Interval.divide(Interval.multiply(a, ONE_EIGHTY), PI);
+            case RAD2GRAD:
+                return a -> Interval.divide(Interval.multiply(a, TWO_HUNDRED), PI);
+            case GRAD2DEG:
+                return a -> Interval.divide(Interval.multiply(a, ONE_EIGHTY), TWO_HUNDRED);
+            case GRAD2RAD:
+                return a -> Interval.divide(Interval.multiply(a, PI), TWO_HUNDRED);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @param a the second argument of <code>&amp;&amp;</code> or <code>||</code>
+     * @return true or false, undecided if the argument may or may not be true
+     */
+    private static Interval logical(Interval a) {
+        if (a == Interval.UNKNOWN) {
+            return Interval.UNKNOWN;
+        }
+        return Interval.isTrue(a) ? Interval.TRUE : Interval.isFalse(a) ? Interval.FALSE : Interval.UNDECIDED;
+    }
+
+    /**
+     * @param test tests the sign of the comparison
+     * @return the comparison, undecided if the intervals of the operands overlap
+     */
+    private static BinaryOperator<Interval> comparison(IntPredicate test) {
+        return (a, b) -> {
+            int comparison = Interval.compare(a, b);
+            if (comparison == 2) {
+                return Interval.UNDECIDED;
+            }
+            return test.test(comparison) ? Interval.TRUE : Interval.FALSE;
+        };
+    }
+
+    /**
+     * @param a the argument
+     * @return the tangent, increasing between the poles where the cosine changes sign
+     */
+    private static Interval tan(Interval a) {
+        if (a.isPoint()) {
+            return Interval.pointwise(StrictMath.tan(a.lo()), 1);
+        } else if (keepsSign(a, StrictMath::cos)) {
+            return Interval.increasing(a, StrictMath::tan, 1);
+        }
+        return Interval.UNKNOWN;
+    }
+
+    /**
+     * @param a the argument
+     * @return the cotangent, decreasing between the poles where the sine changes sign
+     */
+    private static Interval cotan(Interval a) {
+        if (a.isPoint()) {
+            return Interval.pointwise(1 / StrictMath.tan(a.lo()), 2);
+        } else if (keepsSign(a, StrictMath::sin)) {
+            return Interval.decreasing(a, x -> 1 / StrictMath.tan(x), 2);
+        }
+        return Interval.UNKNOWN;
+    }
+
+    /**
+     * @param a the argument
+     * @return the arc cotangent, decreasing on both sides of zero
+     */
+    private static Interval acotan(Interval a) {
+        if (a.contains(0)) {
+            return a.isPoint() ? Interval.pointwise(StrictMath.atan(1 / a.lo()), 2) : Interval.UNKNOWN;
+        }
+        return Interval.decreasing(a, x -> StrictMath.atan(1 / x), 2);
+    }
+
+    /**
+     * The zeros of sine and cosine are more than 1 apart, so the function has the same sign on both ends of a narrower
+     * interval only if it does not change sign within the interval.
+     *
+     * @param a        an interval
+     * @param function sine or cosine
+     * @return true if the function does not change sign within the interval
+     */
+    private static boolean keepsSign(Interval a, DoubleUnaryOperator function) {
+        if (!(a.hi() - a.lo() < 1)) {
+            return false;
+        }
+        double lo = function.applyAsDouble(a.lo());
+        double hi = function.applyAsDouble(a.hi());
+        return lo > SIGN_MARGIN && hi > SIGN_MARGIN || lo < -SIGN_MARGIN && hi < -SIGN_MARGIN;
+    }
+
+    /**
+     * @param a the value
+     * @param b the base
+     * @return the logarithm of a in base b
+     */
+    private static Interval log(Interval a, Interval b) {
+        if (a.isPoint() && b.isPoint()) {
+            return Interval.pointwise(StrictMath.log(a.lo()) / StrictMath.log(b.lo()), 4);
+        }
+        return Interval.divide(Interval.increasing(a, StrictMath::log, 1), Interval.increasing(b, StrictMath::log, 1));
+    }
+
+    /**
+     * @param a the dividend
+     * @param b the divisor
+     * @return the exact remainder of two exact doubles
+     */
+    private static Interval remainder(Interval a, Interval b) {
+        if (!a.isPoint() || !b.isPoint() || b.lo() == 0 || Double.isInfinite(a.lo()) || Double.isInfinite(b.lo())) {
+            return Interval.UNKNOWN;
+        }
+        return Interval.of(new BigDecimal(a.lo()).remainder(new BigDecimal(b.lo())));
+    }
+
+    /**
+     * @param a the argument
+     * @return the fractional part, if every value of the interval has the same integral part
+     */
+    private static Interval fpart(Interval a) {
+        if (a.lo() >= 0 && StrictMath.floor(a.lo()) == StrictMath.floor(a.hi())) {
+            return Interval.subtract(a, Interval.of(StrictMath.floor(a.lo())));
+        } else if (a.hi() <= 0 && StrictMath.ceil(a.lo()) == StrictMath.ceil(a.hi())) {
+            return Interval.subtract(a, Interval.of(StrictMath.ceil(a.hi())));
+        }
+        return Interval.UNKNOWN;
+    }
+}
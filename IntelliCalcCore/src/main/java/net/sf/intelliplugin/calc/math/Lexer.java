@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+
+/**
+ * Single pass lexer for infix expressions. The expression is scanned exactly once, from left to right, and split in
+ * numbers, variables, operators and parenthesis.
+ * <p/>
+ * The lexer takes over the preprocessing that used to be done on the complete expression string before parsing:
+ * <ul>
+ * <li>scientific notation (1e-3) is read as a single number</li>
+ * <li>juxtaposition (2x, 2(3+x), x(1-x), (2-x)sin(x), ...) is reported as an explicit multiplication operator</li>
+ * </ul>
+ * The expression is expected to be lowercase and stripped of spaces.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Lexer {
+
+    private final OperatorTrie operators;
+    private final String exp;
+    private final int length;
+    private final Operator multiply;
+
+    private int index;
+    private Token previous;
+    private Token pending;
+    private Token lookahead;
+
+    /**
+     * @param base the operator table to use
+     * @param exp  the infix expression to tokenize
+     */
+    Lexer(MathBase base, String exp) {
+        this.operators = base.operators;
+        this.exp = exp;
+        this.length = exp.length();
+        this.multiply = base.ops.get("*");
+    }
+
+    /**
+     * @return the next token, without consuming it
+     * @throws SyntaxException if the expression contains an invalid character or number
+     */
+    Token peek() throws SyntaxException {
+        if (lookahead == null) {
+            lookahead = advance();
+        }
+        return lookahead;
+    }
+
+    /**
+     * @return the next token
+     * @throws SyntaxException if the expression contains an invalid character or number
+     */
+    Token next() throws SyntaxException {
+        Token token = peek();
+        lookahead = null;
+        return token;
+    }
+
+    /**
+     * Produces the next token, inserting a multiplication operator between juxtaposed operands.
+     *
+     * @return the next token
+     * @throws SyntaxException if the expression contains an invalid character or number
+     */
+    private Token advance() throws SyntaxException {
+        Token token;
+        if (pending != null) {
+            token = pending;
+            pending = null;
+        } else {
+            token = scan();
+            if (isOperandEnd(previous) && isOperandStart(token)) {
+                pending = token;
+                token = Token.operator(token.getPosition(), multiply);
+            }
+        }
+        previous = token;
+        return token;
+    }
+
+    /**
+     * @param token the token to check
+     * @return true if the token can end an operand
+     */
+    private boolean isOperandEnd(Token token) {
+        if (token == null) {
+            return false;
+        }
+        Token.Type type = token.getType();
+        return type == Token.Type.NUMBER || type == Token.Type.VARIABLE || type == Token.Type.RIGHT_PARENTHESIS;
+    }
+
+    /**
+     * Checks if the token starts an operand which can be juxtaposed. Only single argument functions are accepted as
+     * operator, since these are the only operators that can start an operand.
+     *
+     * @param token the token to check
+     * @return true if the token starts an operand
+     */
+    private boolean isOperandStart(Token token) {
+        switch (token.getType()) {
+            case VARIABLE:
+            case LEFT_PARENTHESIS:
+                return true;
+            case OPERATOR:
+                Operator operator = token.getOperator();
+                return operator.arguments() == 1 && isAlpha(operator.op().charAt(0));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Scans the next token from the expression.
+     *
+     * @return the next token
+     * @throws SyntaxException if the expression contains an invalid character or number
+     */
+    private Token scan() throws SyntaxException {
+        if (index >= length) {
+            return Token.symbol(Token.Type.END, index, "");
+        }
+
+        int start = index;
+        char ch = exp.charAt(index);
+
+        if (ch == '(') {
+            index++;
+            return Token.symbol(Token.Type.LEFT_PARENTHESIS, start, "(");
+        } else if (ch == ')') {
+            index++;
+            return Token.symbol(Token.Type.RIGHT_PARENTHESIS, start, ")");
+        }
+
+        Operator op = operators.match(exp, index);
+        if (op != null) {
+            index += op.op().length();
+            return Token.operator(start, op);
+        } else if (isDigit(ch) || ch == '.') {
+            return scanNumber();
+        } else if (isAlpha(ch)) {
+            return scanVariable();
+        }
+
+        throw new SyntaxException("Syntax error near -> " + exp.substring(start));
+    }
+
+    /**
+     * Scans a number, including an optional exponent (1.5e-3).
+     *
+     * @return the number token
+     * @throws SyntaxException if the number is malformed
+     */
+    private Token scanNumber() throws SyntaxException {
+        int start = index;
+        boolean dot = false;
+        boolean digits = false;
+
+        while (index < length) {
+            char ch = exp.charAt(index);
+            if (isDigit(ch)) {
+                digits = true;
+            } else if (ch == '.' && !dot) {
+                dot = true;
+            } else if (ch == '.') {
+                throw new SyntaxException("Syntax error near -> " + exp.substring(start));
+            } else {
+                break;
+            }
+            index++;
+        }
+
+        if (!digits) {
+            throw new SyntaxException("Syntax error near -> " + exp.substring(start));
+        }
+
+        // scientific notation, the 'e' has to follow a digit and be followed by an (optionally signed) digit.
+        if (index + 1 < length && exp.charAt(index) == 'e' && isDigit(exp.charAt(index - 1))) {
+            char ch = exp.charAt(index + 1);
+            int exponent = index + 1;
+            if ((ch == '-' || ch == '+') && index + 2 < length) {
+                ch = exp.charAt(index + 2);
+                exponent++;
+            }
+            if (isDigit(ch)) {
+                index = exponent;
+                while (index < length && isDigit(exp.charAt(index))) {
+                    index++;
+                }
+            }
+        }
+
+        String text = exp.substring(start, index);
+        return Token.number(start, text, new BigDecimal(text));
+    }
+
+    /**
+     * Scans a variable name. A variable name starts with a letter and can contain digits, but a letter following a
+     * digit starts a new variable (x2y is read as x2*y). A variable also ends where an operator name starts (xcos is
+     * read as x*cos).
+     *
+     * @return the variable token
+     */
+    private Token scanVariable() {
+        int start = index;
+        index++;
+
+        while (index < length) {
+            char ch = exp.charAt(index);
+            if (isDigit(ch)) {
+                index++;
+            } else if (isAlpha(ch) && !isDigit(exp.charAt(index - 1)) && operators.match(exp, index) == null) {
+                index++;
+            } else {
+                break;
+            }
+        }
+
+        return Token.variable(start, exp.substring(start, index));
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isAlpha(char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z';
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Bart Cremers
+ * @since 1.0
+ */
+public abstract class MathBase {
+    final Map<String, Operator> ops;
+    final OperatorTrie operators;
+
+    protected MathBase() {
+        ops = new HashMap<>(52);
+
+        // Add all valid operators.
+        // new Operator( operator, arguments, precedence )
+        ops.put("^", new Operator("^", 2, 3));
+        ops.put("+", new Operator("+", 2, 6));
+        ops.put("-", new Operator("-", 2, 6));
+        ops.put("/", new Operator("/", 2, 4));
+        ops.put("*", new Operator("*", 2, 4));
+        ops.put("cos", new Operator("cos", 1, 2));
+        ops.put("sin", new Operator("sin", 1, 2));
+        ops.put("exp", new Operator("exp", 1, 2));
+        ops.put("ln", new Operator("ln", 1, 2));
+        ops.put("tan", new Operator("tan", 1, 2));
+        ops.put("acos", new Operator("acos", 1, 2));
+        ops.put("asin", new Operator("asin", 1, 2));
+        ops.put("atan", new Operator("atan", 1, 2));
+        ops.put("cosh", new Operator("cosh", 1, 2));
+        ops.put("sinh", new Operator("sinh", 1, 2));
+        ops.put("tanh", new Operator("tanh", 1, 2));
+        ops.put("sqrt", new Operator("sqrt", 1, 2));
+        ops.put("cotan", new Operator("cotan", 1, 2));
+        ops.put("fpart", new Operator("fpart", 1, 2));
+        ops.put("acotan", new Operator("acotan", 1, 2));
+        ops.put("round", new Operator("round", 1, 2));
+        ops.put("ceil", new Operator("ceil", 1, 2));
+        ops.put("floor", new Operator("floor", 1, 2));
+        ops.put("fac", new Operator("fac", 1, 2));
+        ops.put("sfac", new Operator("sfac", 1, 2));
+        ops.put("abs", new Operator("abs", 1, 2));
+        ops.put("log", new Operator("log", 2, 5));
+        ops.put("deg2rad", new Operator("deg2rad", 1, 2));
+        ops.put("deg2grad", new Operator("deg2grad", 1, 2));
+        ops.put("rad2deg", new Operator("rad2deg", 1, 2));
+        ops.put("rad2grad", new Operator("rad2grad", 1, 2));
+        ops.put("grad2deg", new Operator("grad2deg", 1, 2));
+        ops.put("grad2rad", new Operator("grad2rad", 1, 2));
+        ops.put("%", new Operator("%", 2, 4));
+        ops.put(">", new Operator(">", 2, 7));
+        ops.put("<", new Operator("<", 2, 7));
+        ops.put("&&", new Operator("&&", 2, 10));
+        ops.put("==", new Operator("==", 2, 8));
+        ops.put("!=", new Operator("!=", 2, 8));
+        ops.put("||", new Operator("||", 2, 9));
+        ops.put("!", new Operator("!", 1, 1));
+        ops.put(">=", new Operator(">=", 2, 7));
+        ops.put("<=", new Operator("<=", 2, 7));
+
+        operators = new OperatorTrie(ops.values());
+    }
+
+    /**
+     * Checks to see if x is a valid variable.
+     *
+     * @param exp string to check.
+     * @return boolean, true or false.
+     */
+    boolean isVariable(String exp) {
+        int len = exp.length();
+
+        if (isAllNumbers(exp)) {
+            return false;
+        }
+
+        for (int i = 0; i < len; i++) {
+            if (operators.match(exp, i) != null || isAllowedSym(exp.charAt(i))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks to see if the char s is a valid character.
+     *
+     * @param s the char to check
+     * @return true if the char is valid, false otherwise.
+     */
+    private boolean isAllowedSym(char s) {
+        return (s == ')' || s == '(' || s == '.' || s == '>' || s == '<' || s == '&' || s == '=' || s == '|');
+    }
+
+    /**
+     * Checks if the String exp is numeric
+     *
+     * @param exp String to check
+     * @return true is the String was numeric, false otherwise
+     */
+    boolean isConstant(String exp) {
+        try {
+            if (Double.isNaN(Double.parseDouble(exp))) {
+                return false;
+            }
+        } catch (Exception e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks to see if this String consists of only digits and punctuation. <br> The purpose of this method is to
+     * provide a more secure method of checking if a String is numeric since some older JVM's seem to accept Strings
+     * that start with digits as numeric when the isConstant( String ) method above is used.
+     * <p/>
+     * The reason why both these methods exist is that this method is slightly more inefficient and there are only a few
+     * places where the closer more secure check is necessary.
+     *
+     * @param str the String to check
+     * @return true if the String was numeric, false otherwise.
+     */
+    boolean isAllNumbers(String str) {
+        char ch;
+        int i = 0, l;
+        boolean dot = false;
+
+        ch = str.charAt(0);
+
+        if (ch == '-' || ch == '+') {
+            i = 1;
+        }
+
+        l = str.length();
+
+        while (i < l) {
+            ch = str.charAt(i);
+            if (!(Character.isDigit(ch) || (ch == '.' && !dot))) {
+                return false;
+            }
+
+            if (ch == '.') {
+                dot = true;
+            }
+
+            i++;
+        }
+
+        return true;
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+
+/**
+ * This class represent a Node in the internal parse tree of the Eval class.
+ *
+ * @author Bart Cremers
+ * @since 1.0
+ */
+public final class Node {
+
+    private String operator = "";
+    private Opcode opcode = null;
+    private Node arg1 = null;
+    private Node arg2 = null;
+    private int args = 0;
+    private final NodeType type;
+    private BigDecimal value = null; 
+    private String variable = "";
+    private int hash;
+
+    /**
+     * Creates a Node containing the specified Operator and arguments. <br> This will automatically mark this Node as a
+     * {@link NodeType#EXPRESSION}.
+     *
+     * @param operator the String operator
+     * @param arg1     the first argument
+     * @param arg2     the second argument
+     */
+    public Node(String operator, Node arg1, Node arg2) {
+        this(operator, Opcode.of(operator), arg1, arg2);
+    }
+
+    /**
+     * Creates an expression Node for an operator of the operator table.
+     *
+     * @param operator the Operator
+     * @param arg1     the first argument
+     * @param arg2     the second argument
+     */
+    Node(Operator operator, Node arg1, Node arg2) {
+        this(operator.op(), operator.opcode(), arg1, arg2);
+    }
+
+    /**
+     * Creates an expression Node for a known operator.
+     *
+     * @param opcode the operator
+     * @param arg1   the first argument
+     * @param arg2   the second argument
+     */
+    Node(Opcode opcode, Node arg1, Node arg2) {
+        this(opcode.symbol(), opcode, arg1, arg2);
+    }
+
+    private Node(String operator, Opcode opcode, Node arg1, Node arg2) {
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.operator = operator;
+        this.opcode = opcode;
+        this.args = 2;
+        this.type = NodeType.EXPRESSION;
+    }
+
+    /**
+     * Creates a Node containing the specified Operator and argument. <br> This will automatically mark this Node as a
+     * {@link NodeType#EXPRESSION}.
+     *
+     * @param operator the String operator
+     * @param arg1     the first argument
+     */
+    public Node(String operator, Node arg1) {
+        this(operator, Opcode.of(operator), arg1);
+    }
+
+    /**
+     * Creates an expression Node for an operator of the operator table.
+     *
+     * @param operator the Operator
+     * @param arg1     the first argument
+     */
+    Node(Operator operator, Node arg1) {
+        this(operator.op(), operator.opcode(), arg1);
+    }
+
+    /**
+     * Creates an expression Node for a known operator.
+     *
+     * @param opcode the operator
+     * @param arg1   the first argument
+     */
+    Node(Opcode opcode, Node arg1) {
+        this(opcode.symbol(), opcode, arg1);
+    }
+
+    private Node(String operator, Opcode opcode, Node arg1) {
+        this.arg1 = arg1;
+        this.operator = operator;
+        this.opcode = opcode;
+        this.args = 1;
+        this.type = NodeType.EXPRESSION;
+    }
+
+    /**
+     * Creates a Node containing the specified variable. <br> This will automatically mark this Node as a {@link
+     * NodeType#VARIABLE}.
+     *
+     * @param variable the string variable
+     */
+    public Node(String variable) {
+        this.variable = variable;
+        this.type = NodeType.VARIABLE;
+    }
+
+    /**
+     * Creates a Node containing the specified value. <br> This will automatically mark this Node as a {@link
+     * NodeType#CONSTANT}.
+     *
+     * @param value the value
+     */
+    public Node(BigDecimal value) {
+        this.value = value;
+        this.type = NodeType.CONSTANT;
+    }
+
+    /**
+     * @return the operator of this Node
+     */
+    public String getOperator() {
+        return this.operator;
+    }
+
+    /**
+     * @return the opcode of the operator of this Node, null if this Node is not an expression or the operator is
+     * unknown
+     */
+    Opcode getOpcode() {
+        return this.opcode;
+    }
+
+    /**
+     * @return the value of this Node
+     */
+    public BigDecimal getValue() {
+        return this.value;
+    }
+
+    /**
+     * @return the variable of this Node
+     */
+    public String getVariable() {
+        return this.variable;
+    }
+
+    /**
+     * @return the number of arguments this Node has
+     */
+    public int arguments() {
+        return this.args;
+    }
+
+    /**
+     * @return the type of this Node
+     * @see NodeType
+     */
+    public NodeType getType() {
+        return this.type;
+    }
+
+    /**
+     * @return the first argument of this Node
+     */
+    public Node arg1() {
+        return this.arg1;
+    }
+
+    /**
+     * @return the second argument of this Node
+     */
+    public Node arg2() {
+        return this.arg2;
+    }
+
+    /**
+     * Two nodes are equal if they represent the same expression. Constants are only equal if they have the same scale.
+     * The trees are compared without recursion, so deep trees can be compared.
+     *
+     * @param o the object to compare with
+     * @return true if the object is a structurally equal Node
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof Node)) {
+            return false;
+        }
+
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(this);
+        pending.push((Node) o);
+        while (!pending.isEmpty()) {
+            Node a = pending.pop();
+            Node b = pending.pop();
+            if (a == b) {
+                continue;
+            } else if (!a.equalsNode(b)) {
+                return false;
+            }
+            if (a.args > 0) {
+                pending.push(a.arg1);
+                pending.push(b.arg1);
+            }
+            if (a.args > 1) {
+                pending.push(a.arg2);
+                pending.push(b.arg2);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param node the node to compare with
+     * @return true if both nodes are equal, not comparing their arguments
+     */
+    private boolean equalsNode(Node node) {
+        return type == node.type
+               && args == node.args
+               && hashCode() == node.hashCode()
+               && operator.equals(node.operator)
+               && variable.equals(node.variable)
+               && Objects.equals(value, node.value);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            // hash the arguments first, bottom-up, so hashing a deep tree does not recurse
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                Node node = pending.peek();
+                if (node.args > 0 && node.arg1.hash == 0) {
+                    pending.push(node.arg1);
+                } else if (node.args > 1 && node.arg2.hash == 0) {
+                    pending.push(node.arg2);
+                } else {
+                    pending.pop();
+                    h = node.type.hashCode();
+                    h = 31 * h + node.operator.hashCode();
+                    h = 31 * h + node.variable.hashCode();
+                    h = 31 * h + Objects.hashCode(node.value);
+                    h = 31 * h + (node.args > 0 ? node.arg1.hash : 0);
+                    h = 31 * h + (node.args > 1 ? node.arg2.hash : 0);
+                    node.hash = h == 0 ? 1 : h;
+                }
+            }
+            h = hash;
+        }
+        return h;
+    }
+}
\ No newline at end of file
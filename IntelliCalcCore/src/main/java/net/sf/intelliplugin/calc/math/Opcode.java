@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The operators known by the evaluator. A {@link Node} resolves its operator to an opcode when it is created, so
+ * evaluation dispatches on the opcode instead of comparing operator names.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+enum Opcode {
+    POWER("^"),
+    ADD("+"),
+    SUBTRACT("-"),
+    DIVIDE("/"),
+    MULTIPLY("*"),
+    COS("cos"),
+    SIN("sin"),
+    EXP("exp"),
+    LN("ln"),
+    TAN("tan"),
+    ACOS("acos"),
+    ASIN("asin"),
+    ATAN("atan"),
+    COSH("cosh"),
+    SINH("sinh"),
+    TANH("tanh"),
+    SQRT("sqrt"),
+    COTAN("cotan"),
+    FPART("fpart"),
+    ACOTAN("acotan"),
+    ROUND("round"),
+    CEIL("ceil"),
+    FLOOR("floor"),
+    FAC("fac"),
+    SFAC("sfac"),
+    ABS("abs"),
+    LOG("log"),
+    DEG2RAD("deg2rad"),
+    DEG2GRAD("deg2grad"),
+    RAD2DEG("rad2deg"),
+    RAD2GRAD("rad2grad"),
+    GRAD2DEG("grad2deg"),
+    GRAD2RAD("grad2rad"),
+    REMAINDER("%"),
+    GREATER(">"),
+    LESS("<"),
+    AND("&&"),
+    EQUAL("=="),
+    NOT_EQUAL("!="),
+    OR("||"),
+    NOT("!"),
+    GREATER_OR_EQUAL(">="),
+    LESS_OR_EQUAL("<=");
+
+    private static final Map<String, Opcode> SYMBOLS = new HashMap<>();
+
+    static {
+        for (Opcode opcode : values()) {
+            SYMBOLS.put(opcode.symbol, opcode);
+        }
+    }
+
+    private final String symbol;
+
+    Opcode(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * @return the operator as it is written in an expression
+     */
+    String symbol() {
+        return symbol;
+    }
+
+    /**
+     * @param symbol the operator as it is written in an expression
+     * @return the opcode of the operator, or null if the operator is unknown
+     */
+    static Opcode of(String symbol) {
+        return SYMBOLS.get(symbol);
+    }
+}
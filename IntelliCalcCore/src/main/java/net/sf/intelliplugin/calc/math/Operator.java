@@ -33,6 +33,7 @@ final class Operator {
     private final String op;
     private final int args;
     private final int precedence;
+    private final Opcode opcode;
 
     /**
      * Creates an Operator with the specified name, arguments and precedence
@@ -45,6 +46,7 @@ final class Operator {
         this.op = operator;
         this.args = arguments;
         this.precedence = precedence;
+        this.opcode = Opcode.of(operator);
     }
 
     /**
@@ -62,4 +64,11 @@ final class Operator {
 	}
 
 	public String op() { return op; }
+
+    /**
+     * @return the opcode the evaluator dispatches on
+     */
+    Opcode opcode() {
+        return opcode;
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Character trie over the operator table. The trie is compiled once into flat transition arrays, so recognizing the
+ * operator at a position of an expression does not allocate and costs at most one array lookup per character of the
+ * longest operator.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class OperatorTrie {
+
+    private static final int ASCII = 128;
+    private static final int NO_STATE = -1;
+
+    /**
+     * Maps each ASCII character to its column in the transition table, or -1 if no operator contains the character.
+     */
+    private final int[] columns = new int[ASCII];
+    private final int width;
+
+    /**
+     * Transition table, the next state for state s and column c is found at <code>transitions[s * width + c]</code>.
+     */
+    private int[] transitions;
+
+    /**
+     * The operator accepted in each state, <code>null</code> if the state does not complete an operator.
+     */
+    private Operator[] accepted;
+    private int states;
+
+    /**
+     * @param operators the operators to recognize. All operator names must be ASCII.
+     */
+    OperatorTrie(Collection<Operator> operators) {
+        Arrays.fill(columns, -1);
+
+        int alphabet = 0;
+        for (Operator operator : operators) {
+            String name = operator.op();
+            for (int i = 0; i < name.length(); i++) {
+                char ch = name.charAt(i);
+                if (ch >= ASCII) {
+                    throw new IllegalArgumentException("Operator is not ASCII: " + name);
+                }
+                if (columns[ch] < 0) {
+                    columns[ch] = alphabet++;
+                }
+            }
+        }
+
+        width = alphabet;
+        transitions = new int[width * 16];
+        accepted = new Operator[16];
+        Arrays.fill(transitions, NO_STATE);
+        states = 1;
+
+        for (Operator operator : operators) {
+            add(operator);
+        }
+    }
+
+    /**
+     * Adds an operator to the trie.
+     *
+     * @param operator the operator to add
+     */
+    private void add(Operator operator) {
+        String name = operator.op();
+        int state = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            int slot = state * width + columns[name.charAt(i)];
+            if (transitions[slot] == NO_STATE) {
+                if (states == accepted.length) {
+                    int capacity = states * 2;
+                    accepted = Arrays.copyOf(accepted, capacity);
+                    transitions = Arrays.copyOf(transitions, capacity * width);
+                    Arrays.fill(transitions, states * width, transitions.length, NO_STATE);
+                }
+                transitions[slot] = states++;
+            }
+            state = transitions[slot];
+        }
+
+        accepted[state] = operator;
+    }
+
+    /**
+     * Finds the longest operator starting at the given index.
+     *
+     * @param exp   the expression to search in
+     * @param index the index to start matching at
+     * @return the longest operator starting at index, or <code>null</code> if no operator starts at index
+     */
+    Operator match(CharSequence exp, int index) {
+        return match(exp, index, exp.length());
+    }
+
+    /**
+     * Finds the longest operator starting at the given index and ending before the given end index.
+     *
+     * @param exp   the expression to search in
+     * @param index the index to start matching at
+     * @param end   the index at which matching stops
+     * @return the longest operator found, or <code>null</code> if no operator starts at index
+     */
+    Operator match(CharSequence exp, int index, int end) {
+        if (index < 0) {
+            return null;
+        }
+
+        int state = 0;
+        Operator found = null;
+
+        for (int i = index; i < end; i++) {
+            char ch = exp.charAt(i);
+            if (ch >= ASCII || columns[ch] < 0) {
+                break;
+            }
+            state = transitions[state * width + columns[ch]];
+            if (state == NO_STATE) {
+                break;
+            }
+            if (accepted[state] != null) {
+                found = accepted[state];
+            }
+        }
+
+        return found;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+/**
+ * Simplifies parse trees before they are cached.
+ * <p/>
+ * Subtrees without variables are folded into a single constant, special constants (pi, euler, ...) are replaced by
+ * their value and the identity operations <code>x+0</code>, <code>0+x</code>, <code>x-0</code>, <code>x*1</code>,
+ * <code>1*x</code> and <code>x^1</code> are replaced by <code>x</code>. A constant subtree which fails to evaluate
+ * (<code>1/0</code>) is kept, so the error is still reported when the expression is evaluated.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Optimizer {
+
+    private final Eval eval;
+    private final Compiler compiler;
+
+    /**
+     * @param eval     the evaluator providing the special constants
+     * @param compiler the compiler used to compute constant subtrees
+     */
+    Optimizer(Eval eval, Compiler compiler) {
+        this.eval = eval;
+        this.compiler = compiler;
+    }
+
+    /**
+     * @param tree the parse tree to simplify
+     * @return the simplified tree, which is the given tree if nothing could be simplified
+     */
+    Node optimize(Node tree) {
+        return Trees.rewrite(tree, this::simplify);
+    }
+
+    /**
+     * @param tree a node of the parse tree
+     * @param arg1 the simplified first argument of the node
+     * @param arg2 the simplified second argument of the node
+     * @return the simplified node
+     */
+    private Node simplify(Node tree, Node arg1, Node arg2) {
+        switch (tree.getType()) {
+            case CONSTANT:
+                return tree;
+            case VARIABLE:
+                BigDecimal constant = eval.specialConstant(tree.getVariable());
+                return constant == null ? tree : new Node(constant);
+        }
+
+        if (tree.arguments() == 1) {
+            if (arg1.getType() == NodeType.CONSTANT) {
+                return fold(new Node(tree.getOperator(), arg1));
+            }
+            return arg1 == tree.arg1() ? tree : new Node(tree.getOperator(), arg1);
+        }
+
+        if (arg1.getType() == NodeType.CONSTANT && arg2.getType() == NodeType.CONSTANT) {
+            return fold(new Node(tree.getOperator(), arg1, arg2));
+        }
+
+        Opcode op = tree.getOpcode();
+        if (op != null) {
+            switch (op) {
+                case ADD:
+                    if (isConstant(arg2, BigMath.ZERO)) {
+                        return arg1;
+                    } else if (isConstant(arg1, BigMath.ZERO)) {
+                        return arg2;
+                    }
+                    break;
+                case SUBTRACT:
+                    if (isConstant(arg2, BigMath.ZERO)) {
+                        return arg1;
+                    }
+                    break;
+                case MULTIPLY:
+                    if (isConstant(arg2, BigMath.ONE)) {
+                        return arg1;
+                    } else if (isConstant(arg1, BigMath.ONE)) {
+                        return arg2;
+                    }
+                    break;
+                case POWER:
+                    if (isConstant(arg2, BigMath.ONE)) {
+                        return arg1;
+                    }
+                    break;
+            }
+        }
+
+        return arg1 == tree.arg1() && arg2 == tree.arg2() ? tree : new Node(tree.getOperator(), arg1, arg2);
+    }
+
+    /**
+     * @param tree an operator applied to constants only
+     * @return a constant holding the value of the tree, or the tree itself if it can not be evaluated
+     */
+    private Node fold(Node tree) {
+        try {
+            BigDecimal value = compiler.compile(tree).evaluate(new Scope(new Bindings(eval, Collections.emptyMap())));
+            return value == null ? tree : new Node(value);
+        } catch (MathException | RuntimeException e) {
+            return tree;
+        }
+    }
+
+    /**
+     * Only the exact value is neutral, <code>x*1.0</code> changes the scale of <code>x</code>.
+     *
+     * @param tree  a tree
+     * @param value the value to compare with
+     * @return true if the tree is a constant equal to the value, scale included
+     */
+    private static boolean isConstant(Node tree, BigDecimal value) {
+        return tree.getType() == NodeType.CONSTANT && value.equals(tree.getValue());
+    }
+}
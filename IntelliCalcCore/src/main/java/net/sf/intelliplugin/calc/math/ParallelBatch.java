@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits the rows of a batch evaluation into slices which are evaluated in parallel. Every slice writes to its own
+ * range of the result column and every row is computed exactly like a sequential evaluation would, so the result does
+ * not depend on the number of threads.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class ParallelBatch {
+
+    /**
+     * The minimum number of rows evaluated by one task, a multiple of {@link ColumnCompiler#BLOCK_SIZE}.
+     */
+    static final int MINIMUM_SLICE = 16 * ColumnCompiler.BLOCK_SIZE;
+
+    /**
+     * Evaluates a range of rows.
+     */
+    @FunctionalInterface
+    interface Slice {
+
+        /**
+         * @param from the first row to compute
+         * @param to   the row after the last row to compute
+         * @throws MathException if a row can not be evaluated
+         */
+        void evaluate(int from, int to) throws MathException;
+    }
+
+    private ParallelBatch() {
+    }
+
+    /**
+     * Evaluates all rows, splitting them over the threads of the executor. A {@link ForkJoinPool} recursively splits
+     * the rows in halves, any other executor gets one task per slice.
+     *
+     * @param slice    evaluates a range of rows
+     * @param rows     the number of rows
+     * @param executor the executor running the slices
+     * @throws MathException if a row can not be evaluated
+     */
+    static void evaluate(Slice slice, int rows, Executor executor) throws MathException {
+        try {
+            if (executor instanceof ForkJoinPool) {
+                ((ForkJoinPool) executor).invoke(new SliceAction(slice, 0, rows));
+            } else {
+                List<CompletableFuture<Void>> tasks = new ArrayList<>();
+                for (int from = 0; from < rows; from += MINIMUM_SLICE) {
+                    int start = from;
+                    int end = Math.min(rows, from + MINIMUM_SLICE);
+                    tasks.add(CompletableFuture.runAsync(() -> run(slice, start, end), executor));
+                }
+                CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).join();
+            }
+        } catch (CompletionException e) {
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof MathException) {
+                    throw (MathException) cause;
+                }
+            }
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static void run(Slice slice, int from, int to) {
+        try {
+            slice.evaluate(from, to);
+        } catch (MathException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static final class SliceAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Slice slice;
+        private final int from;
+        private final int to;
+
+        private SliceAction(Slice slice, int from, int to) {
+            this.slice = slice;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MINIMUM_SLICE) {
+                run(slice, from, to);
+            } else {
+                int blocks = (to - from + ColumnCompiler.BLOCK_SIZE - 1) / ColumnCompiler.BLOCK_SIZE;
+                int middle = from + blocks / 2 * ColumnCompiler.BLOCK_SIZE;
+                invokeAll(new SliceAction(slice, from, middle), new SliceAction(slice, middle, to));
+            }
+        }
+    }
+}
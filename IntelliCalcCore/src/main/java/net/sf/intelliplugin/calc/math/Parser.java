@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Precedence climbing (Pratt) parser creating a tree of {@link Node}s from the token stream of a {@link Lexer}.
+ * <p/>
+ * Operator precedence is taken from the operator table of {@link MathBase}, where a lower value binds tighter. All
+ * binary operators are left associative. A leading <code>+</code> or <code>-</code> is parsed as <code>0+x</code> or
+ * <code>0-x</code>, any other operator taking a single argument is a prefix function. A single argument operator
+ * following an operand is applied to that operand, <code>x!</code> is read as <code>!x</code>.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Parser {
+
+    private static final int LOWEST_PRECEDENCE = Integer.MAX_VALUE;
+
+    private final Lexer lexer;
+
+    /**
+     * @param base the operator table to use
+     * @param exp  the infix expression to parse. The expression should be lowercase and stripped of spaces.
+     */
+    Parser(MathBase base, String exp) {
+        this.lexer = new Lexer(base, exp);
+    }
+
+    /**
+     * Parses the complete expression.
+     *
+     * @return a tree data structure of Node objects representing the expression
+     * @throws MathException if the expression can not be parsed.
+     */
+    Node parse() throws MathException {
+        Node tree = expression(LOWEST_PRECEDENCE);
+
+        Token token = lexer.next();
+        if (token.getType() == Token.Type.RIGHT_PARENTHESIS) {
+            throw new SyntaxException("Non matching brackets");
+        } else if (token.getType() != Token.Type.END) {
+            throw new MathException("Missing operator");
+        }
+
+        return tree;
+    }
+
+    /**
+     * Parses an expression, consuming operators as long as they bind tighter than the given precedence.
+     * <p/>
+     * The parser does not recurse. Whenever an operand needs a nested expression (the right hand side of a binary
+     * operator, an expression between parenthesis or the argument of a prefix operator) a frame recording what to do
+     * with the nested expression is pushed, and the frame is popped once the nested expression is complete. The depth
+     * of an expression is therefore only bounded by the heap.
+     *
+     * @param precedence the precedence of the operator this expression is an argument of
+     * @return the parsed expression
+     * @throws MathException if the expression can not be parsed.
+     */
+    private Node expression(int precedence) throws MathException {
+        Deque<Frame> frames = new ArrayDeque<>();
+
+        while (true) {
+            Node tree = operand(precedence, frames);
+            if (tree == null) {
+                // a nested expression was started, parse its first operand
+                precedence = frames.peek().nested;
+                continue;
+            }
+
+            while (true) {
+                Token token = lexer.peek();
+                if (token.getType() == Token.Type.OPERATOR && token.getOperator().precedence() < precedence) {
+                    lexer.next();
+
+                    Operator op = token.getOperator();
+                    if (op.arguments() == 2) {
+                        frames.push(new Frame(Frame.Kind.BINARY, op, tree, null, precedence, op.precedence()));
+                        break;
+                    }
+                    tree = new Node(op, tree);
+                    continue;
+                }
+
+                if (frames.isEmpty()) {
+                    return tree;
+                }
+
+                // the nested expression is complete, continue with the expression it is part of
+                Frame frame = frames.pop();
+                precedence = frame.precedence;
+                tree = frame.complete(tree, lexer);
+            }
+
+            precedence = frames.peek().nested;
+        }
+    }
+
+    /**
+     * Parses a single operand: a number, a variable, an expression between parenthesis or a prefix operator with its
+     * argument. An operand needing a nested expression pushes a frame completing the operand once the nested
+     * expression is parsed.
+     *
+     * @param precedence the precedence of the operator this operand is an argument of
+     * @param frames     the frames of the expressions being parsed
+     * @return the parsed operand, or null if a frame was pushed
+     * @throws MathException if the operand can not be parsed.
+     */
+    private Node operand(int precedence, Deque<Frame> frames) throws MathException {
+        Token token = lexer.next();
+
+        switch (token.getType()) {
+            case NUMBER:
+                return new Node(token.getValue());
+            case VARIABLE:
+                return new Node(token.getText());
+            case LEFT_PARENTHESIS:
+                frames.push(new Frame(Frame.Kind.PARENTHESIS, null, null, null, precedence, LOWEST_PRECEDENCE));
+                return null;
+            case OPERATOR:
+                Operator op = token.getOperator();
+                int bound = Math.min(op.precedence(), precedence);
+                if (op.arguments() == 1) {
+                    frames.push(new Frame(Frame.Kind.PREFIX, op, null, null, precedence, bound));
+                    return null;
+                } else if (op.op().equals("+") || op.op().equals("-")) {
+                    frames.push(new Frame(Frame.Kind.SIGN, op, null, lexer.peek(), precedence, bound));
+                    return null;
+                }
+                throw new MathException("Wrong number of arguments to operator " + op.op());
+            default:
+                throw missingOperand(frames);
+        }
+    }
+
+    /**
+     * @param frames the frames of the expressions being parsed
+     * @return the error for a missing operand, naming the innermost operator waiting for it
+     */
+    private static MathException missingOperand(Deque<Frame> frames) {
+        for (Frame frame : frames) {
+            if (frame.op != null) {
+                return new MathException("Wrong number of arguments to operator " + frame.op.op());
+            }
+        }
+        return new MathException("Wrong number of arguments to operator");
+    }
+
+    /**
+     * An operand or expression waiting for a nested expression.
+     */
+    private static final class Frame {
+
+        private enum Kind {
+            /**
+             * The right hand side of a binary operator.
+             */
+            BINARY,
+            /**
+             * An expression between parenthesis.
+             */
+            PARENTHESIS,
+            /**
+             * The argument of a prefix operator.
+             */
+            PREFIX,
+            /**
+             * The argument of a leading <code>+</code> or <code>-</code>.
+             */
+            SIGN
+        }
+
+        private final Kind kind;
+        private final Operator op;
+        private final Node left;
+        private final Token number;
+        private final int precedence;
+        private final int nested;
+
+        /**
+         * @param kind       what the nested expression is part of
+         * @param op         the operator applied to the nested expression
+         * @param left       the left hand side of a binary operator
+         * @param number     the token following a sign
+         * @param precedence the precedence of the operator the completed expression is an argument of
+         * @param nested     the precedence to parse the nested expression with
+         */
+        private Frame(Kind kind, Operator op, Node left, Token number, int precedence, int nested) {
+            this.kind = kind;
+            this.op = op;
+            this.left = left;
+            this.number = number;
+            this.precedence = precedence;
+            this.nested = nested;
+        }
+
+        /**
+         * @param tree  the nested expression
+         * @param lexer the lexer following the nested expression
+         * @return the completed operand or expression
+         * @throws MathException if the expression can not be parsed.
+         */
+        private Node complete(Node tree, Lexer lexer) throws MathException {
+            switch (kind) {
+                case BINARY:
+                    return new Node(op, left, tree);
+                case PARENTHESIS:
+                    Token token = lexer.next();
+                    if (token.getType() == Token.Type.END) {
+                        throw new SyntaxException("Non matching brackets");
+                    } else if (token.getType() != Token.Type.RIGHT_PARENTHESIS) {
+                        throw new MathException("Missing operator");
+                    }
+                    return tree;
+                case PREFIX:
+                    return new Node(op, tree);
+                default:
+                    return sign(tree, lexer);
+            }
+        }
+
+        /**
+         * A signed number which is a complete argument on its own (<code>2*-3</code>) becomes a signed constant,
+         * anything else becomes <code>0+x</code> or <code>0-x</code>.
+         *
+         * @param arg   the argument of the sign
+         * @param lexer the lexer following the argument
+         * @return the signed operand
+         * @throws MathException if the expression can not be parsed.
+         */
+        private Node sign(Node arg, Lexer lexer) throws MathException {
+            if (number.getType() == Token.Type.NUMBER && arg.getValue() == number.getValue()) {
+                Token token = lexer.peek();
+                if (token.getType() != Token.Type.OPERATOR || token.getOperator().precedence() >= precedence) {
+                    return new Node(op.op().equals("-") ? arg.getValue().negate() : arg.getValue());
+                }
+            }
+
+            return new Node(op, new Node(BigMath.ZERO), arg);
+        }
+    }
+}
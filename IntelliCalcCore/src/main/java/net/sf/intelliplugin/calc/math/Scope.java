@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The state of a single evaluation: the variable values and the values of the shared subtrees computed so far.
+ * <p/>
+ * Compiled expressions read their variables by slot (see {@link Variables}). The values either come from an array
+ * indexed by slot, or are looked up by name in the bindings.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Scope {
+
+    private final Bindings bindings;
+    private final Variables variables;
+    private final BigDecimal[] values;
+    private final double[] doubleValues;
+    private Map<Node, BigDecimal> memo;
+    private double[] doubles;
+    private boolean[] computed;
+    private Interval[] intervals;
+
+    /**
+     * @param bindings the variable=value pairs
+     */
+    Scope(Bindings bindings) {
+        this(bindings, null, null, null);
+    }
+
+    /**
+     * @param variables the slots of the variables
+     * @param values    the variable values, indexed by slot
+     */
+    Scope(Variables variables, BigDecimal[] values) {
+        this(null, variables, values, null);
+    }
+
+    /**
+     * @param variables the slots of the variables
+     * @param values    the variable values, indexed by slot
+     */
+    Scope(Variables variables, double[] values) {
+        this(null, variables, null, values);
+    }
+
+    private Scope(Bindings bindings, Variables variables, BigDecimal[] values, double[] doubleValues) {
+        this.bindings = bindings;
+        this.variables = variables;
+        this.values = values;
+        this.doubleValues = doubleValues;
+    }
+
+    /**
+     * @return a scope with the same variable values in which nothing is computed yet
+     */
+    Scope restart() {
+        return new Scope(bindings, variables, values, doubleValues);
+    }
+
+    /**
+     * @param name the name of the variable
+     * @return the value of the variable
+     * @throws MathException if no value is associated with the variable or its value can not be evaluated
+     */
+    BigDecimal variable(String name) throws MathException {
+        if (bindings == null) {
+            return variable(variables.slot(name), name);
+        }
+        return bindings.value(name);
+    }
+
+    /**
+     * @param slot the slot of the variable
+     * @param name the name of the variable
+     * @return the value of the variable
+     * @throws MathException if no value is associated with the variable or its value can not be evaluated
+     */
+    BigDecimal variable(int slot, String name) throws MathException {
+        if (values != null) {
+            BigDecimal value = values[slot];
+            if (value == null) {
+                throw new MathException("No value associated with " + name);
+            }
+            return value;
+        } else if (doubleValues != null) {
+            BigDecimal value = DoubleCompiler.toDecimal(doubleValues[slot]);
+            if (value == null) {
+                throw new MathException("Value of " + name + " is not a number");
+            }
+            return value;
+        }
+        return bindings.value(name);
+    }
+
+    /**
+     * @param slot the slot of the variable
+     * @param name the name of the variable
+     * @return the value of the variable as a double
+     * @throws MathException if no value is associated with the variable or its value can not be evaluated
+     */
+    double doubleVariable(int slot, String name) throws MathException {
+        if (doubleValues != null) {
+            return doubleValues[slot];
+        }
+        return DoubleCompiler.toDouble(variable(slot, name));
+    }
+
+    /**
+     * @param slot the slot of the variable
+     * @param name the name of the variable
+     * @return the smallest interval of doubles enclosing the value of the variable
+     * @throws MathException if no value is associated with the variable or its value can not be evaluated
+     */
+    Interval interval(int slot, String name) throws MathException {
+        if (doubleValues != null) {
+            double value = doubleValues[slot];
+            // the decimal arithmetic rejects values which are not a number
+            return Double.isInfinite(value) ? Interval.UNKNOWN : Interval.of(value);
+        }
+        return Interval.of(variable(slot, name));
+    }
+
+    /**
+     * Computes the value of a subtree once per evaluation, later calls for the same (shared) node return the value
+     * computed before.
+     *
+     * @param tree the subtree
+     * @param node computes the value of the subtree
+     * @return the value of the subtree
+     * @throws MathException if the value of the subtree can not be computed
+     */
+    BigDecimal memoize(Node tree, CompiledNode node) throws MathException {
+        if (memo == null) {
+            memo = new IdentityHashMap<>();
+        }
+
+        BigDecimal value = memo.get(tree);
+        if (value == null) {
+            value = node.evaluate(this);
+            memo.put(tree, value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes the value of a shared subtree compiled for {@link EvaluationMode#DOUBLE} once per evaluation.
+     *
+     * @param slot the memo slot assigned to the subtree
+     * @param node computes the value of the subtree
+     * @return the value of the subtree
+     * @throws MathException if the value of the subtree can not be computed
+     */
+    double memoizeDouble(int slot, CompiledDouble node) throws MathException {
+        if (doubles == null || slot >= doubles.length) {
+            int length = Math.max(slot + 1, doubles == null ? 8 : doubles.length * 2);
+            doubles = doubles == null ? new double[length] : Arrays.copyOf(doubles, length);
+            computed = computed == null ? new boolean[length] : Arrays.copyOf(computed, length);
+        }
+
+        if (!computed[slot]) {
+            doubles[slot] = node.evaluate(this);
+            computed[slot] = true;
+        }
+        return doubles[slot];
+    }
+
+    /**
+     * Computes the enclosure of a shared subtree compiled for {@link EvaluationMode#ADAPTIVE} once per evaluation.
+     *
+     * @param slot the memo slot assigned to the subtree
+     * @param node computes the enclosure of the subtree
+     * @return the enclosure of the subtree
+     * @throws MathException if the value of the subtree can not be computed
+     */
+    Interval memoize(int slot, CompiledInterval node) throws MathException {
+        if (intervals == null || slot >= intervals.length) {
+            int length = Math.max(slot + 1, intervals == null ? 8 : intervals.length * 2);
+            intervals = intervals == null ? new Interval[length] : Arrays.copyOf(intervals, length);
+        }
+
+        Interval value = intervals[slot];
+        if (value == null) {
+            value = node.evaluate(this);
+            intervals[slot] = value;
+        }
+        return value;
+    }
+}
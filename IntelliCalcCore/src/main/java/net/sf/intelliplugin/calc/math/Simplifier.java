@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.calculator.BigMath;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds simplified expression trees for symbolic differentiation.
+ * <p/>
+ * Every method returns a simplified tree, given simplified arguments. Constants are folded as long as the result is
+ * exact, short sums are collected into a linear combination of distinct terms (<code>x+2*x-1+1</code> becomes
+ * <code>3*x</code>), constant factors are moved to the front of a product, powers of the same base are merged and
+ * fractions are moved to the top of the tree. Every rule only looks at the arguments, so building a tree takes a
+ * single bottom-up pass and always terminates.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Simplifier {
+
+    static final Node ZERO = new Node(BigDecimal.ZERO);
+    static final Node ONE = new Node(BigDecimal.ONE);
+    static final Node TWO = new Node(BigMath.TWO);
+    static final Node MINUS_ONE = new Node(BigDecimal.ONE.negate());
+
+    /**
+     * Longer sums are not collected, so building a long chain like <code>a+b+c+...</code> stays linear.
+     */
+    private static final int MAXIMUM_TERMS = 16;
+
+    /**
+     * Constant powers with more digits are not folded.
+     */
+    private static final int MAXIMUM_POWER_DIGITS = 1000;
+
+    private Simplifier() {
+    }
+
+    /**
+     * @param tree a parse tree
+     * @return the simplified tree
+     */
+    static Node simplify(Node tree) {
+        return Trees.rewrite(tree, Simplifier::rebuild);
+    }
+
+    private static Node rebuild(Node tree, Node arg1, Node arg2) {
+        switch (tree.getType()) {
+            case CONSTANT:
+                return constant(tree.getValue());
+            case VARIABLE:
+                return tree;
+        }
+
+        Opcode op = tree.getOpcode();
+        if (tree.arguments() == 1) {
+            return op == null ? new Node(tree.getOperator(), arg1) : function(op, arg1);
+        } else if (op == null) {
+            return new Node(tree.getOperator(), arg1, arg2);
+        }
+        switch (op) {
+            case ADD:
+                return sum(arg1, arg2);
+            case SUBTRACT:
+                return difference(arg1, arg2);
+            case MULTIPLY:
+                return product(arg1, arg2);
+            case DIVIDE:
+                return quotient(arg1, arg2);
+            case POWER:
+                return power(arg1, arg2);
+            default:
+                return new Node(op, arg1, arg2);
+        }
+    }
+
+    /**
+     * @param value a number
+     * @return a constant holding the number without trailing zeros, so equal numbers give equal trees
+     */
+    static Node constant(BigDecimal value) {
+        return value.signum() == 0 ? ZERO : new Node(value.stripTrailingZeros());
+    }
+
+    static Node sum(Node a, Node b) {
+        return combine(a, b, false);
+    }
+
+    static Node difference(Node a, Node b) {
+        return combine(a, b, true);
+    }
+
+    static Node negate(Node a) {
+        return product(MINUS_ONE, a);
+    }
+
+    static Node product(Node a, Node b) {
+        if (isConstant(a) && isConstant(b)) {
+            return constant(a.getValue().multiply(b.getValue()));
+        } else if (isZero(a) || isZero(b)) {
+            return ZERO;
+        } else if (isOne(a)) {
+            return b;
+        } else if (isOne(b)) {
+            return a;
+        } else if (isConstant(b)) {
+            return product(b, a);
+        } else if (isConstant(a)) {
+            if (is(b, Opcode.MULTIPLY) && isConstant(b.arg1())) {
+                return product(product(a, b.arg1()), b.arg2());
+            } else if (is(b, Opcode.DIVIDE)) {
+                return quotient(product(a, b.arg1()), b.arg2());
+            }
+            return new Node(Opcode.MULTIPLY, a, b);
+        } else if (is(a, Opcode.MULTIPLY) && isConstant(a.arg1())) {
+            return product(a.arg1(), product(a.arg2(), b));
+        } else if (is(b, Opcode.MULTIPLY) && isConstant(b.arg1())) {
+            return product(b.arg1(), product(a, b.arg2()));
+        } else if (is(a, Opcode.DIVIDE)) {
+            return quotient(product(a.arg1(), b), a.arg2());
+        } else if (is(b, Opcode.DIVIDE)) {
+            return quotient(product(a, b.arg1()), b.arg2());
+        } else if (base(a).equals(base(b))) {
+            return power(base(a), sum(exponent(a), exponent(b)));
+        }
+        return new Node(Opcode.MULTIPLY, a, b);
+    }
+
+    static Node quotient(Node a, Node b) {
+        if (isZero(b)) {
+            // keep the division, the error is reported when the derivative is evaluated
+            return new Node(Opcode.DIVIDE, a, b);
+        } else if (isZero(a)) {
+            return ZERO;
+        } else if (isOne(b)) {
+            return a;
+        } else if (isConstant(b, BigDecimal.ONE.negate())) {
+            return negate(a);
+        } else if (a.equals(b)) {
+            return ONE;
+        } else if (isConstant(a) && isConstant(b)) {
+            BigDecimal quotient = integerQuotient(a.getValue(), b.getValue());
+            return quotient == null ? new Node(Opcode.DIVIDE, a, b) : constant(quotient);
+        } else if (is(a, Opcode.DIVIDE)) {
+            return quotient(a.arg1(), product(a.arg2(), b));
+        } else if (is(b, Opcode.DIVIDE)) {
+            return quotient(product(a, b.arg2()), b.arg1());
+        }
+
+        BigDecimal divisor = coefficient(b);
+        if (divisor.compareTo(BigDecimal.ONE) != 0) {
+            BigDecimal quotient = integerQuotient(coefficient(a), divisor);
+            if (quotient != null) {
+                return quotient(product(constant(quotient), term(a)), term(b));
+            }
+        }
+
+        if (!isConstant(a) && base(a).equals(base(b))) {
+            Node exponent = difference(exponent(a), exponent(b));
+            if (isConstant(exponent) && exponent.getValue().signum() < 0) {
+                return new Node(Opcode.DIVIDE, ONE, power(base(a), constant(exponent.getValue().negate())));
+            }
+            return power(base(a), exponent);
+        }
+        return new Node(Opcode.DIVIDE, a, b);
+    }
+
+    static Node power(Node a, Node b) {
+        if (isZero(b)) {
+            return ONE;
+        } else if (isOne(b) || isZero(a) && isConstant(b) && b.getValue().signum() > 0) {
+            return a;
+        } else if (isOne(a)) {
+            return ONE;
+        } else if (isConstant(a) && isConstant(b)) {
+            BigDecimal power = integerPower(a.getValue(), b.getValue());
+            return power == null ? new Node(Opcode.POWER, a, b) : constant(power);
+        } else if (is(a, Opcode.POWER) && isInteger(b)) {
+            return power(a.arg1(), product(a.arg2(), b));
+        }
+        return new Node(Opcode.POWER, a, b);
+    }
+
+    /**
+     * @param op  an operator taking a single argument
+     * @param arg the argument
+     * @return the operator applied to the argument, without the operator if it is undone by the argument
+     */
+    static Node function(Opcode op, Node arg) {
+        switch (op) {
+            case EXP:
+                if (isZero(arg)) {
+                    return ONE;
+                } else if (is(arg, Opcode.LN)) {
+                    return arg.arg1();
+                }
+                break;
+            case LN:
+                if (isOne(arg)) {
+                    return ZERO;
+                } else if (is(arg, Opcode.EXP)) {
+                    return arg.arg1();
+                }
+                break;
+            case SIN:
+                return isZero(arg) ? ZERO : is(arg, Opcode.ASIN) ? arg.arg1() : new Node(op, arg);
+            case COS:
+                return isZero(arg) ? ONE : is(arg, Opcode.ACOS) ? arg.arg1() : new Node(op, arg);
+            case TAN:
+                return isZero(arg) ? ZERO : is(arg, Opcode.ATAN) ? arg.arg1() : new Node(op, arg);
+            case COTAN:
+                return is(arg, Opcode.ACOTAN) ? arg.arg1() : new Node(op, arg);
+            case ABS:
+                return isConstant(arg) ? constant(arg.getValue().abs()) : new Node(op, arg);
+            case SQRT:
+                if (isConstant(arg) && arg.getValue().signum() >= 0) {
+                    try {
+                        return constant(BigMath.root(arg.getValue(), 2, MathContext.UNLIMITED));
+                    } catch (ArithmeticException e) {
+                        // not a perfect square
+                    }
+                }
+                break;
+        }
+        return new Node(op, arg);
+    }
+
+    /**
+     * Collects the terms of both arguments into a linear combination, or simply adds the arguments if there are too
+     * many terms.
+     *
+     * @param a        the first argument
+     * @param b        the second argument
+     * @param subtract true to subtract b from a, false to add
+     * @return the simplified sum or difference
+     */
+    private static Node combine(Node a, Node b, boolean subtract) {
+        if (isConstant(a) && isConstant(b)) {
+            return constant(subtract ? a.getValue().subtract(b.getValue()) : a.getValue().add(b.getValue()));
+        } else if (isZero(b)) {
+            return a;
+        } else if (isZero(a)) {
+            return subtract ? negate(b) : b;
+        }
+
+        Map<Node, BigDecimal> terms = new LinkedHashMap<>();
+        if (collect(a, false, terms) && collect(b, subtract, terms)) {
+            return linear(terms);
+        }
+
+        BigDecimal coefficient = coefficient(b);
+        if (coefficient.signum() < 0) {
+            return new Node(subtract ? Opcode.ADD : Opcode.SUBTRACT, a,
+                            product(constant(coefficient.negate()), term(b)));
+        }
+        return new Node(subtract ? Opcode.SUBTRACT : Opcode.ADD, a, b);
+    }
+
+    /**
+     * Adds the coefficients of the terms of a sum to the linear combination. A constant is a multiple of the term
+     * <code>1</code>.
+     *
+     * @param tree     a simplified tree
+     * @param negative true if the tree is subtracted
+     * @param terms    the coefficient of every term, in the order the terms were found
+     * @return false if the tree has too many terms
+     */
+    private static boolean collect(Node tree, boolean negative, Map<Node, BigDecimal> terms) {
+        Deque<Node> pending = new ArrayDeque<>();
+        Deque<Boolean> signs = new ArrayDeque<>();
+        pending.push(tree);
+        signs.push(negative);
+
+        int visited = 0;
+        while (!pending.isEmpty()) {
+            if (++visited > 2 * MAXIMUM_TERMS) {
+                return false;
+            }
+            Node node = pending.pop();
+            boolean minus = signs.pop();
+            if (is(node, Opcode.ADD) || is(node, Opcode.SUBTRACT)) {
+                pending.push(node.arg2());
+                signs.push(minus != is(node, Opcode.SUBTRACT));
+                pending.push(node.arg1());
+                signs.push(minus);
+            } else {
+                BigDecimal coefficient = coefficient(node);
+                terms.merge(term(node), minus ? coefficient.negate() : coefficient, BigDecimal::add);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param terms the coefficient of every term
+     * @return the sum of the terms, starting with the first term having a positive coefficient
+     */
+    private static Node linear(Map<Node, BigDecimal> terms) {
+        Node first = null;
+        for (Map.Entry<Node, BigDecimal> term : terms.entrySet()) {
+            if (term.getValue().signum() > 0) {
+                first = term.getKey();
+                break;
+            }
+        }
+
+        Node sum = first == null ? null : product(constant(terms.get(first)), first);
+        for (Map.Entry<Node, BigDecimal> term : terms.entrySet()) {
+            BigDecimal coefficient = term.getValue();
+            if (coefficient.signum() == 0 || term.getKey() == first) {
+                continue;
+            } else if (sum == null) {
+                sum = product(constant(coefficient), term.getKey());
+            } else {
+                sum = new Node(coefficient.signum() < 0 ? Opcode.SUBTRACT : Opcode.ADD, sum,
+                               product(constant(coefficient.abs()), term.getKey()));
+            }
+        }
+        return sum == null ? ZERO : sum;
+    }
+
+    /**
+     * @param tree a simplified tree
+     * @return the constant factor of the tree, 1 if there is none
+     */
+    private static BigDecimal coefficient(Node tree) {
+        if (isConstant(tree)) {
+            return tree.getValue();
+        } else if (is(tree, Opcode.MULTIPLY) && isConstant(tree.arg1())) {
+            return tree.arg1().getValue();
+        }
+        return BigDecimal.ONE;
+    }
+
+    /**
+     * @param tree a simplified tree
+     * @return the tree without its constant factor
+     */
+    private static Node term(Node tree) {
+        if (isConstant(tree)) {
+            return ONE;
+        } else if (is(tree, Opcode.MULTIPLY) && isConstant(tree.arg1())) {
+            return tree.arg2();
+        }
+        return tree;
+    }
+
+    private static Node base(Node tree) {
+        return is(tree, Opcode.POWER) ? tree.arg1() : tree;
+    }
+
+    private static Node exponent(Node tree) {
+        return is(tree, Opcode.POWER) ? tree.arg2() : ONE;
+    }
+
+    /**
+     * @return the quotient if it is an integer, null otherwise
+     */
+    private static BigDecimal integerQuotient(BigDecimal a, BigDecimal b) {
+        if (b.signum() == 0) {
+            return null;
+        }
+        BigDecimal[] division = a.divideAndRemainder(b);
+        return division[1].signum() == 0 ? division[0] : null;
+    }
+
+    /**
+     * @return the exact power if the exponent is an integer and the power is not too large, null otherwise
+     */
+    private static BigDecimal integerPower(BigDecimal a, BigDecimal b) {
+        if (b.signum() != 0 && b.stripTrailingZeros().scale() > 0 || b.abs().compareTo(BigDecimal.valueOf(
+            MAXIMUM_POWER_DIGITS)) > 0) {
+            return null;
+        }
+        int n = b.intValue();
+        if ((long) a.precision() * Math.abs(n) > MAXIMUM_POWER_DIGITS) {
+            return null;
+        } else if (n < 0) {
+            return a.signum() == 0 ? null : integerQuotient(BigDecimal.ONE, a.pow(-n));
+        }
+        return a.pow(n);
+    }
+
+    static boolean is(Node tree, Opcode op) {
+        return tree.getType() == NodeType.EXPRESSION && tree.getOpcode() == op;
+    }
+
+    static boolean isConstant(Node tree) {
+        return tree.getType() == NodeType.CONSTANT;
+    }
+
+    private static boolean isConstant(Node tree, BigDecimal value) {
+        return isConstant(tree) && tree.getValue().compareTo(value) == 0;
+    }
+
+    static boolean isZero(Node tree) {
+        return isConstant(tree) && tree.getValue().signum() == 0;
+    }
+
+    private static boolean isOne(Node tree) {
+        return isConstant(tree, BigDecimal.ONE);
+    }
+
+    private static boolean isInteger(Node tree) {
+        return isConstant(tree) && tree.getValue().stripTrailingZeros().scale() <= 0;
+    }
+}
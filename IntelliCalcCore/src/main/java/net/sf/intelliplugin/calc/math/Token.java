@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+
+/**
+ * A single token in the token stream produced by the {@link Lexer}.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Token {
+
+    /**
+     * The different kinds of tokens the lexer can produce.
+     */
+    enum Type {
+        NUMBER,
+        VARIABLE,
+        OPERATOR,
+        LEFT_PARENTHESIS,
+        RIGHT_PARENTHESIS,
+        END
+    }
+
+    private final Type type;
+    private final int position;
+    private final String text;
+    private final BigDecimal value;
+    private final Operator operator;
+
+    private Token(Type type, int position, String text, BigDecimal value, Operator operator) {
+        this.type = type;
+        this.position = position;
+        this.text = text;
+        this.value = value;
+        this.operator = operator;
+    }
+
+    /**
+     * @param position the index of the token in the expression
+     * @param text     the number as found in the expression
+     * @param value    the parsed value
+     * @return a {@link Type#NUMBER} token
+     */
+    static Token number(int position, String text, BigDecimal value) {
+        return new Token(Type.NUMBER, position, text, value, null);
+    }
+
+    /**
+     * @param position the index of the token in the expression
+     * @param name     the name of the variable
+     * @return a {@link Type#VARIABLE} token
+     */
+    static Token variable(int position, String name) {
+        return new Token(Type.VARIABLE, position, name, null, null);
+    }
+
+    /**
+     * @param position the index of the token in the expression
+     * @param operator the operator
+     * @return a {@link Type#OPERATOR} token
+     */
+    static Token operator(int position, Operator operator) {
+        return new Token(Type.OPERATOR, position, operator.op(), null, operator);
+    }
+
+    /**
+     * @param type     the type of the token, one of the parenthesis types or {@link Type#END}
+     * @param position the index of the token in the expression
+     * @param text     the text of the token
+     * @return a token without a value
+     */
+    static Token symbol(Type type, int position, String text) {
+        return new Token(type, position, text, null, null);
+    }
+
+    /**
+     * @return the type of this token
+     */
+    Type getType() {
+        return type;
+    }
+
+    /**
+     * @return the index of this token in the expression
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the text of this token
+     */
+    String getText() {
+        return text;
+    }
+
+    /**
+     * @return the value of a {@link Type#NUMBER} token, <code>null</code> for all other tokens
+     */
+    BigDecimal getValue() {
+        return value;
+    }
+
+    /**
+     * @return the operator of a {@link Type#OPERATOR} token, <code>null</code> for all other tokens
+     */
+    Operator getOperator() {
+        return operator;
+    }
+
+    @Override
+    public String toString() {
+        return type + "(" + text + ")";
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Walks parse trees with an explicit stack instead of recursion, so the depth of a tree is only bounded by the heap.
+ * Parsing a long chain like <code>a+b+c+...</code> results in a tree which is as deep as the chain is long.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Trees {
+
+    /**
+     * Rewrites a single node, given its rewritten arguments.
+     */
+    @FunctionalInterface
+    interface Rewrite {
+
+        /**
+         * @param tree the node to rewrite
+         * @param arg1 the rewritten first argument, null if the node has no arguments
+         * @param arg2 the rewritten second argument, null if the node has less than two arguments
+         * @return the rewritten node
+         */
+        Node apply(Node tree, Node arg1, Node arg2);
+    }
+
+    private Trees() {
+    }
+
+    /**
+     * Rewrites a tree bottom-up. Every distinct expression node is rewritten once, after its arguments. Constants and
+     * variables are rewritten every time they are used.
+     *
+     * @param tree    the tree to rewrite
+     * @param rewrite rewrites a node given its rewritten arguments
+     * @return the rewritten tree
+     */
+    static Node rewrite(Node tree, Rewrite rewrite) {
+        if (tree.arguments() == 0) {
+            return rewrite.apply(tree, null, null);
+        }
+
+        Map<Node, Node> rewritten = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node node = pending.peek();
+            if (isPending(node.arg1(), rewritten)) {
+                pending.push(node.arg1());
+            } else if (node.arguments() > 1 && isPending(node.arg2(), rewritten)) {
+                pending.push(node.arg2());
+            } else {
+                pending.pop();
+                Node arg1 = rewritten(node.arg1(), rewritten, rewrite);
+                Node arg2 = node.arguments() > 1 ? rewritten(node.arg2(), rewritten, rewrite) : null;
+                rewritten.put(node, rewrite.apply(node, arg1, arg2));
+            }
+        }
+        return rewritten.get(tree);
+    }
+
+    private static boolean isPending(Node arg, Map<Node, ?> done) {
+        return arg.arguments() > 0 && !done.containsKey(arg);
+    }
+
+    private static Node rewritten(Node arg, Map<Node, Node> rewritten, Rewrite rewrite) {
+        return arg.arguments() == 0 ? rewrite.apply(arg, null, null) : rewritten.get(arg);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The variables of a compiled expression. Every distinct variable is assigned a dense slot, in the order in which the
+ * variables first appear in the expression, so the compiled expression can read its variable values from an array.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+final class Variables {
+
+    private final String[] names;
+    private final Map<String, Integer> slots;
+
+    private Variables(String[] names, Map<String, Integer> slots) {
+        this.names = names;
+        this.slots = slots;
+    }
+
+    /**
+     * @param tree      a parse tree
+     * @param constants the special constants known by the evaluator, which are not variables
+     * @return the variables of the tree
+     */
+    static Variables of(Node tree, Map<String, BigDecimal> constants) {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> slots = new HashMap<>();
+        Map<Node, Boolean> visited = new IdentityHashMap<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (node.getType() == NodeType.VARIABLE) {
+                String name = node.getVariable();
+                if (!constants.containsKey(name) && !slots.containsKey(name)) {
+                    slots.put(name, names.size());
+                    names.add(name);
+                }
+            } else if (node.getType() == NodeType.EXPRESSION && visited.put(node, Boolean.TRUE) == null) {
+                if (node.arguments() == 2) {
+                    pending.push(node.arg2());
+                }
+                pending.push(node.arg1());
+            }
+        }
+        return new Variables(names.toArray(new String[0]), slots);
+    }
+
+    /**
+     * @param tree      a parse tree
+     * @param constants the special constants known by the evaluator, which are not variables
+     * @return the variables of the tree
+     */
+    static Variables of(FlatTree tree, Map<String, BigDecimal> constants) {
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> slots = new HashMap<>();
+        for (String name : tree.variables()) {
+            if (!constants.containsKey(name)) {
+                slots.put(name, names.size());
+                names.add(name);
+            }
+        }
+        return new Variables(names.toArray(new String[0]), slots);
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return the slot of the variable, -1 if the expression does not use the variable
+     */
+    int slot(String name) {
+        return slots.getOrDefault(name, -1);
+    }
+
+    /**
+     * @param slot the slot of a variable
+     * @return the name of the variable
+     */
+    String name(int slot) {
+        return names[slot];
+    }
+
+    /**
+     * @return the number of variables
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the names of the variables in slot order
+     */
+    List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+}
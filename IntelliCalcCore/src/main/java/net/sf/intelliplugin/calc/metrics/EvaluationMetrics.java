@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsListener} adding up everything it is told. The counters can be updated concurrently and read at any
+ * time, a report of all counters is returned by {@link #toString()}.
+ *
+ * @author Bart Cremers
+ * @since 2.2
+ */
+public class EvaluationMetrics implements MetricsListener {
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder evaluationNanos = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAccumulator maximumPrecision = new LongAccumulator(Math::max, 0);
+    private final LongAdder derivations = new LongAdder();
+    private final LongAdder derivationNanos = new LongAdder();
+    private final LongAdder derivativeLength = new LongAdder();
+    private final LongAdder calculations = new LongAdder();
+    private final LongAdder calculationNanos = new LongAdder();
+
+    @Override
+    public void cacheHit(String expression) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void parsed(String expression, int nodes, long nanos) {
+        parses.increment();
+        parseNanos.add(nanos);
+    }
+
+    @Override
+    public void evaluated(String expression, int nodes, int precision, long nanos) {
+        evaluations.increment();
+        evaluationNanos.add(nanos);
+        this.nodes.add(nodes);
+        maximumPrecision.accumulate(precision);
+    }
+
+    @Override
+    public void derived(String expression, int derivatives, int length, long nanos) {
+        derivations.increment();
+        derivationNanos.add(nanos);
+        derivativeLength.add(length);
+    }
+
+    @Override
+    public void calculated(String operator, int precision, long nanos) {
+        calculations.increment();
+        calculationNanos.add(nanos);
+        maximumPrecision.accumulate(precision);
+    }
+
+    /**
+     * Sets all counters back to zero. Updates made while resetting may be lost.
+     */
+    public void reset() {
+        cacheHits.reset();
+        parses.reset();
+        parseNanos.reset();
+        evaluations.reset();
+        evaluationNanos.reset();
+        nodes.reset();
+        maximumPrecision.reset();
+        derivations.reset();
+        derivationNanos.reset();
+        derivativeLength.reset();
+        calculations.reset();
+        calculationNanos.reset();
+    }
+
+    /**
+     * @return the number of expressions found in a parse tree cache
+     */
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of expressions parsed
+     */
+    public long getParseCount() {
+        return parses.sum();
+    }
+
+    /**
+     * @return the total time spent parsing, in nanoseconds
+     */
+    public long getParseTime() {
+        return parseNanos.sum();
+    }
+
+    /**
+     * @return the number of expressions evaluated
+     */
+    public long getEvaluationCount() {
+        return evaluations.sum();
+    }
+
+    /**
+     * @return the total time spent evaluating, in nanoseconds
+     */
+    public long getEvaluationTime() {
+        return evaluationNanos.sum();
+    }
+
+    /**
+     * @return the total number of nodes visited evaluating expressions
+     */
+    public long getNodeCount() {
+        return nodes.sum();
+    }
+
+    /**
+     * @return the largest precision of an evaluated or calculated result, in decimal digits
+     */
+    public int getMaximumPrecision() {
+        return maximumPrecision.intValue();
+    }
+
+    /**
+     * @return the number of expressions derived
+     */
+    public long getDerivationCount() {
+        return derivations.sum();
+    }
+
+    /**
+     * @return the total time spent deriving, in nanoseconds
+     */
+    public long getDerivationTime() {
+        return derivationNanos.sum();
+    }
+
+    /**
+     * @return the total length of all derivatives, in characters
+     */
+    public long getDerivativeLength() {
+        return derivativeLength.sum();
+    }
+
+    /**
+     * @return the number of operators executed by the calculator engine
+     */
+    public long getCalculationCount() {
+        return calculations.sum();
+    }
+
+    /**
+     * @return the total time spent executing operators, in nanoseconds
+     */
+    public long getCalculationTime() {
+        return calculationNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "evaluations=" + getEvaluationCount() + ", time=" + millis(getEvaluationTime()) + ", nodes="
+               + getNodeCount() + ", maximum precision=" + getMaximumPrecision() + "\n"
+               + "parses=" + getParseCount() + ", time=" + millis(getParseTime()) + ", cache hits="
+               + getCacheHitCount() + "\n"
+               + "derivations=" + getDerivationCount() + ", time=" + millis(getDerivationTime()) + ", output="
+               + getDerivativeLength() + " characters\n"
+               + "calculations=" + getCalculationCount() + ", time=" + millis(getCalculationTime());
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f ms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.metrics;
+
+/**
+ * Receives the timings and sizes measured while parsing, evaluating and deriving expressions. Every method has an
+ * empty default implementation, so a listener only overrides what it is interested in.
+ * <p/>
+ * Nothing is measured as long as no listener is set, the only cost is a null check per call. A listener can be called
+ * from several threads at once and is called on the evaluating thread, so it should return quickly.
+ *
+ * @author Bart Cremers
+ * @see EvaluationMetrics
+ * @since 2.2
+ */
+public interface MetricsListener {
+
+    /**
+     * Called when a parse tree is found in the cache, the expression is not parsed again.
+     *
+     * @param expression the normalized expression
+     */
+    default void cacheHit(String expression) {
+    }
+
+    /**
+     * Called when an expression has been parsed because it was not found in the cache.
+     *
+     * @param expression the normalized expression
+     * @param nodes      the number of nodes of the parse tree
+     * @param nanos      the time spent parsing, in nanoseconds
+     */
+    default void parsed(String expression, int nodes, long nanos) {
+    }
+
+    /**
+     * Called when an expression has been evaluated.
+     *
+     * @param expression the normalized expression
+     * @param nodes      the number of nodes visited to compute the result
+     * @param precision  the precision of the result, in decimal digits, 0 if the result is NaN
+     * @param nanos      the time spent evaluating, in nanoseconds, excluding the time spent parsing
+     */
+    default void evaluated(String expression, int nodes, int precision, long nanos) {
+    }
+
+    /**
+     * Called when an expression has been derived.
+     *
+     * @param expression  the expression
+     * @param derivatives the number of derivatives, one per variable
+     * @param length      the total length of the derivatives, in characters
+     * @param nanos       the time spent deriving, in nanoseconds
+     */
+    default void derived(String expression, int derivatives, int length, long nanos) {
+    }
+
+    /**
+     * Called when the calculator engine has executed an operator.
+     *
+     * @param operator  the name of the operator
+     * @param precision the precision of the result, in decimal digits, 0 if the result is NaN
+     * @param nanos     the time spent executing the operator, in nanoseconds
+     */
+    default void calculated(String operator, int precision, long nanos) {
+    }
+}
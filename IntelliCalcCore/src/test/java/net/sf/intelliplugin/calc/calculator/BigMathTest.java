@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.calculator;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests powers of negative bases and powers with exponents beyond the range of repeated squaring.
+ *
+ * @author Bart Cremers
+ */
+class BigMathTest {
+
+    private static final MathContext CONTEXT = new MathContext(20);
+
+    @Test
+    void negativeBaseWithLargeIntegerExponent() {
+        assertPow("1", "-1", "1E10");
+        assertPow("-1", "-1", "10000000001");
+        assertPow("-1.3498588076907411026", "-1.0000000001", "3000000001");
+        assertPow("1.3498588075557552219", "-1.0000000001", "3000000000");
+    }
+
+    @Test
+    void largeIntegerExponentOverflows() {
+        assertFailure("Power overflows", "-2", "1E10");
+        assertFailure("Power overflows", "2", "1E10");
+        assertFailure("Power overflows", "-2", "1E100");
+        assertFailure("Power underflows", "-0.5", "1E10");
+        assertFailure("Power underflows", "2", "-1E10");
+    }
+
+    @Test
+    void negativeBaseWithFractionalExponent() {
+        assertFailure("Negative base with a fractional exponent", "-2", "0.1234567");
+        assertFailure("Negative base with a fractional exponent", "-32", "0.2");
+        assertFailure("Negative base with a fractional exponent", "-8", "0.33333333333333333333");
+        assertFailure("Negative base with a fractional exponent", "-1.5", "6.2");
+        assertFailure("Negative base with a fractional exponent", "-2", "-0.5");
+    }
+
+    @Test
+    void negativeBaseWithIntegerExponent() {
+        assertPow("-8", "-2", "3");
+        assertPow("4", "-2", "2.0");
+        assertPow("-0.125", "-2", "-3");
+        assertPow("-243", "-3", "5");
+    }
+
+    private static void assertPow(String expected, String a, String b) {
+        BigDecimal power = BigMath.pow(new BigDecimal(a), new BigDecimal(b), CONTEXT);
+        assertEquals(0, new BigDecimal(expected).compareTo(power), a + "^" + b + " = " + power);
+    }
+
+    private static void assertFailure(String message, String a, String b) {
+        ArithmeticException e = assertThrows(ArithmeticException.class,
+                                             () -> BigMath.pow(new BigDecimal(a), new BigDecimal(b), CONTEXT));
+        assertEquals(message, e.getMessage(), a + "^" + b);
+    }
+}
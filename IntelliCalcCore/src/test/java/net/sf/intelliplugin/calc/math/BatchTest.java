@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that columnar evaluation computes every row like a single row evaluation.
+ *
+ * @author Bart Cremers
+ */
+class BatchTest {
+
+    private static final int ROWS = 3 * ColumnCompiler.BLOCK_SIZE + 7;
+
+    private static final String[] GUARDS = {
+            "0&&1/0",
+            "1||x/0",
+            "y!=0&&x/y>1",
+            "y==0||x/y>1",
+            "y!=0&&x%y==1",
+            "(y!=0&&x/y>1)||(x!=0&&y/x>1)",
+            "x>0&&(y!=0&&fac(x)/y>1)",
+            "!(y!=0&&x/y<0)&&(y==0||y/y==1)",
+    };
+
+    private final Eval eval = new Eval();
+
+    @Test
+    void decimalBatchShortCircuits() throws MathException {
+        Map<String, BigDecimal[]> columns = new HashMap<>();
+        columns.put("x", new BigDecimal[ROWS]);
+        columns.put("y", new BigDecimal[ROWS]);
+        for (int i = 0; i < ROWS; i++) {
+            columns.get("x")[i] = BigDecimal.valueOf(x(i));
+            columns.get("y")[i] = BigDecimal.valueOf(y(i));
+        }
+
+        for (String guard : GUARDS) {
+            CompiledExpression expression = eval.compile(guard);
+            BigDecimal[] result = new BigDecimal[ROWS];
+            expression.evaluateDecimalBatch(columns, result);
+
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(0, expression.evaluate(values(i)).compareTo(result[i]), guard + " row " + i);
+            }
+
+            BigDecimal[] parallel = new BigDecimal[ROWS];
+            expression.evaluateDecimalBatch(columns, parallel, ForkJoinPool.commonPool());
+            assertArrayEquals(result, parallel);
+        }
+    }
+
+    @Test
+    void doubleBatchShortCircuits() throws MathException {
+        Map<String, double[]> columns = new HashMap<>();
+        columns.put("x", new double[ROWS]);
+        columns.put("y", new double[ROWS]);
+        for (int i = 0; i < ROWS; i++) {
+            columns.get("x")[i] = x(i);
+            columns.get("y")[i] = y(i);
+        }
+
+        for (String guard : GUARDS) {
+            CompiledExpression expression = eval.compile(guard, EvaluationMode.DOUBLE);
+            double[] result = new double[ROWS];
+            expression.evaluateBatch(columns, result);
+
+            for (int i = 0; i < ROWS; i++) {
+                assertEquals(expression.evaluateDouble(values(i)), result[i], guard + " row " + i);
+            }
+        }
+    }
+
+    private static Map<String, String> values(int row) {
+        Map<String, String> values = new HashMap<>();
+        values.put("x", String.valueOf(x(row)));
+        values.put("y", String.valueOf(y(row)));
+        return values;
+    }
+
+    private static int x(int row) {
+        return row % 7 - 3;
+    }
+
+    private static int y(int row) {
+        return row % 4 - 1;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests of expressions far deeper than the stack allows to recurse. Run by the stressTest task.
+ *
+ * @author Bart Cremers
+ */
+@Tag("stress")
+class DeepExpressionTest {
+
+    private static final int TERMS = 1000000;
+    private static final int DEPTH = 200000;
+
+    private final Eval eval = new Eval();
+
+    @Test
+    void millionTermSum() throws MathException {
+        String sum = repeat("x+", TERMS - 1) + "x";
+        Bindings bindings = new Bindings(eval);
+        bindings.set("x", "1");
+
+        BigDecimal expected = BigDecimal.valueOf(TERMS);
+        assertEquals(0, expected.compareTo(eval.eval(sum, Collections.singletonMap("x", "1"))));
+        assertEquals(0, expected.compareTo(eval.eval(sum, bindings)));
+        assertEquals(0, expected.compareTo(eval.compile(sum).evaluate(BigDecimal.ONE)));
+        assertEquals(TERMS, eval.compile(sum, EvaluationMode.DOUBLE).evaluateDouble(1), 0);
+    }
+
+    @Test
+    void sumEvaluatesInLinearTime() throws MathException {
+        long quarter = fastest(TERMS / 4);
+        long full = fastest(TERMS);
+
+        // linear growth takes 4 times as long, quadratic growth 16 times
+        assertTrue(full < 10 * quarter, TERMS + " terms took " + full / 1000000 + " ms, " + TERMS / 4 + " terms "
+                                        + quarter / 1000000 + " ms");
+    }
+
+    @Test
+    void deeplyNestedExpressions() throws MathException {
+        assertEquals(0, BigDecimal.valueOf(2).compareTo(
+                eval.eval(repeat("(", DEPTH) + "1+1" + repeat(")", DEPTH), Collections.emptyMap())));
+        assertEquals(0, BigDecimal.valueOf(3).compareTo(
+                eval.eval(repeat("abs(", DEPTH) + "-3" + repeat(")", DEPTH), Collections.emptyMap())));
+        assertEquals(0, BigDecimal.valueOf(5).compareTo(
+                eval.eval(repeat("-", DEPTH) + "5", Collections.emptyMap())));
+    }
+
+    /**
+     * @param terms the number of terms of the sum
+     * @return the shortest of a few times to parse and evaluate a sum, in nanoseconds
+     */
+    private long fastest(int terms) throws MathException {
+        // distinct terms, so the tree is neither folded nor shared
+        StringBuilder sum = new StringBuilder("x");
+        for (int i = 1; i < terms; i++) {
+            sum.append('+').append(i % 1000).append("*x");
+        }
+        String exp = sum.toString();
+
+        long fastest = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            new Eval(0, 0).eval(exp, Collections.singletonMap("x", "1"));
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder repeated = new StringBuilder(text.length() * count);
+        for (int i = 0; i < count; i++) {
+            repeated.append(text);
+        }
+        return repeated.toString();
+    }
+}
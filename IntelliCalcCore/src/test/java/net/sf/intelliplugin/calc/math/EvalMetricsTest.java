@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import net.sf.intelliplugin.calc.metrics.MetricsListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that a metrics listener does not change the results of the evaluator.
+ *
+ * @author Bart Cremers
+ */
+class EvalMetricsTest {
+
+    private final Eval eval = new Eval();
+    private final List<String> evaluated = new ArrayList<>();
+    private final List<Integer> precisions = new ArrayList<>();
+
+    EvalMetricsTest() {
+        eval.setMetricsListener(new MetricsListener() {
+            @Override
+            public void evaluated(String expression, int nodes, int precision, long nanos) {
+                evaluated.add(expression);
+                precisions.add(precision);
+            }
+        });
+    }
+
+    @Test
+    void notANumberIsReported() throws MathException {
+        assertNull(eval.eval("nan", new Bindings(eval)));
+        assertNull(eval.eval("fac(2.5)", new Bindings(eval)));
+
+        assertEquals(2, evaluated.size());
+        assertEquals("nan", evaluated.get(0));
+        assertEquals(0, (int) precisions.get(0));
+        assertEquals(0, (int) precisions.get(1));
+    }
+
+    @Test
+    void numberIsReported() throws MathException {
+        assertEquals("12", eval.eval("3*4", new Bindings(eval)).toPlainString());
+
+        assertEquals(1, evaluated.size());
+        assertEquals(2, (int) precisions.get(0));
+    }
+}
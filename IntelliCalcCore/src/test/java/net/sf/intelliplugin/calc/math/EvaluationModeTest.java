@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the evaluation modes agree with each other and with the interpreter.
+ *
+ * @author Bart Cremers
+ */
+class EvaluationModeTest {
+
+    private final Eval eval = new Eval();
+
+    @Test
+    void factorialOfIntegralDecimal() throws MathException {
+        assertAllModes("fac(5.0)", 120);
+        assertAllModes("sfac(5.0)", 15);
+        assertAllModes("fac(ceil(4.5))", 120);
+        assertAllModes("fac(2*2.5)", 120);
+        assertAllModes("fac(5)", 120);
+    }
+
+    @Test
+    void factorialOfFraction() throws MathException {
+        for (String exp : new String[]{"fac(4.5)", "sfac(4.5)"}) {
+            assertNull(eval.eval(exp, Collections.emptyMap()), exp);
+            assertNull(eval.compile(exp).evaluate(), exp);
+            assertEquals(Double.NaN, eval.compile(exp, EvaluationMode.DOUBLE).evaluateDouble(), exp);
+        }
+    }
+
+    @Test
+    void negativeBaseWithIntegerExponent() throws MathException {
+        assertAllModes("(-2)^3", -8);
+        assertAllModes("(-2)^2.0", 4);
+        assertAllModes("(-2)^-3", -0.125);
+        assertAllModes("(-3)^(10/2)", -243);
+    }
+
+    @Test
+    void negativeBaseWithFractionalExponent() throws MathException {
+        for (String exp : new String[]{"(-32)^0.2", "(-8)^(1/3)", "(-8)^0.3333333", "(-1.5)^6.2", "(-4)^-0.5"}) {
+            assertThrows(MathException.class, () -> eval.eval(exp, Collections.emptyMap()), exp);
+            assertThrows(MathException.class, () -> eval.compile(exp).evaluate(), exp);
+            assertThrows(MathException.class, () -> eval.compile(exp, EvaluationMode.ADAPTIVE).evaluate(), exp);
+            assertEquals(Double.NaN, eval.compile(exp, EvaluationMode.DOUBLE).evaluateDouble(), exp);
+
+            double[] result = new double[1];
+            eval.compile(exp).evaluateBatch(Collections.emptyMap(), result);
+            assertEquals(Double.NaN, result[0], exp);
+        }
+    }
+
+    @Test
+    void angleConversionsOfPi() throws MathException {
+        assertAllModes("rad2deg(pi)", 180);
+        assertAllModes("rad2grad(pi)", 200);
+
+        BigDecimal pi = eval.eval("pi", Collections.emptyMap());
+        assertEquals(0, new BigDecimal("3.1415926535897932385").compareTo(pi));
+        for (String exp : new String[]{"deg2rad(180)", "grad2rad(200)"}) {
+            assertEquals(0, pi.compareTo(eval.eval(exp, Collections.emptyMap())), exp);
+            assertEquals(0, pi.compareTo(eval.compile(exp).evaluate()), exp);
+            assertEquals(Math.PI, eval.compile(exp, EvaluationMode.DOUBLE).evaluateDouble(), exp);
+        }
+    }
+
+    @Test
+    void interpreterAppliesCompiledOperations() throws MathException {
+        String[] expressions = {
+                "1.5+2-3*4/7", "2^0.5", "2^100", "8 log 2", "7.5%2", "1==1", "1!=2", "1<2", "2>1", "1>=2", "1<=2",
+                "1&&0", "0||1", "!1", "sqrt(2)", "sin(1)", "cos(1)", "tan(1)", "asin(0.5)", "acos(0.5)", "atan(2)",
+                "ln(3)", "exp(2)", "cotan(1)", "acotan(2)", "ceil(1.2)", "round(1.5)", "floor(-1.2)", "fac(10)",
+                "abs(-3)", "fpart(-2.75)", "sfac(9)", "sinh(1)", "cosh(1)", "tanh(1)", "deg2rad(30)", "deg2grad(30)",
+                "rad2deg(1)", "rad2grad(1)", "grad2deg(50)", "grad2rad(50)"
+        };
+        for (String exp : expressions) {
+            BigDecimal interpreted = eval.eval(exp, Collections.emptyMap());
+            assertEquals(eval.compile(exp).evaluate(), interpreted, exp);
+        }
+    }
+
+    /**
+     * Asserts that the interpreter and every evaluation mode compute the expected value.
+     */
+    private void assertAllModes(String exp, double expected) throws MathException {
+        assertEquals(0, BigDecimal.valueOf(expected).compareTo(eval.eval(exp, Collections.emptyMap())), exp);
+        for (EvaluationMode mode : EvaluationMode.values()) {
+            CompiledExpression compiled = eval.compile(exp, mode);
+            assertEquals(expected, compiled.evaluateDouble(), exp + " " + mode);
+            assertEquals(0, BigDecimal.valueOf(expected).compareTo(compiled.evaluate()), exp + " " + mode);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the bounds of the parse tree cache.
+ *
+ * @author Bart Cremers
+ */
+class ExpressionCacheTest {
+
+    private final Eval eval = new Eval();
+
+    @Test
+    void cachesTreeLargerThanSegmentShare() throws MathException {
+        FlatTree tree = tree(3000);
+        assertTrue(tree.size() > Eval.DEFAULT_MAXIMUM_WEIGHT / 16, "tree of " + tree.size() + " nodes");
+
+        ExpressionCache cache = new ExpressionCache(Eval.DEFAULT_MAXIMUM_SIZE, Eval.DEFAULT_MAXIMUM_WEIGHT);
+        cache.put("large", tree);
+
+        assertSame(tree, cache.get("large"));
+        assertEquals(tree.size(), cache.statistics().getWeight());
+    }
+
+    @Test
+    void evaluationCachesLargeExpression() throws MathException {
+        String exp = expression(3000);
+        Bindings bindings = new Bindings(eval);
+        bindings.set("x", "2");
+
+        eval.eval(exp, bindings);
+        eval.eval(exp, bindings);
+
+        assertEquals(1, eval.getCacheStatistics().getHitCount());
+    }
+
+    @Test
+    void doesNotCacheTreeHeavierThanCache() throws MathException {
+        FlatTree tree = tree(100);
+        ExpressionCache cache = new ExpressionCache(16, tree.size() - 1);
+        cache.put("large", tree);
+
+        assertNull(cache.get("large"));
+        assertEquals(0, cache.statistics().getWeight());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTreeOfAllSegments() throws MathException {
+        FlatTree tree = tree(10);
+        ExpressionCache cache = new ExpressionCache(16, 3L * tree.size());
+        cache.put("a", tree);
+        cache.put("b", tree);
+        cache.put("c", tree);
+        cache.get("a");
+        cache.put("d", tree);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(1, cache.statistics().getEvictionCount());
+        assertEquals(3L * tree.size(), cache.statistics().getWeight());
+    }
+
+    /**
+     * @param terms the number of terms
+     * @return the flat tree of a sum without repeated parts
+     */
+    private FlatTree tree(int terms) throws MathException {
+        return FlatTree.of(new Parser(eval, expression(terms)).parse());
+    }
+
+    private static String expression(int terms) {
+        StringBuilder exp = new StringBuilder("x");
+        for (int i = 1; i <= terms; i++) {
+            exp.append('+').append(i).append(".5*x");
+        }
+        return exp.toString();
+    }
+}
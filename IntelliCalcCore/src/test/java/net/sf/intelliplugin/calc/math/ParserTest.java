@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 by Bart Cremers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a
+ * copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense,
+ * and/or sell copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package net.sf.intelliplugin.calc.math;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the syntax accepted by the parser and its errors.
+ *
+ * @author Bart Cremers
+ */
+class ParserTest {
+
+    private final Eval eval = new Eval();
+
+    @Test
+    void missingOperandNamesOperator() {
+        assertError("Wrong number of arguments to operator +", "1+");
+        assertError("Wrong number of arguments to operator ^", "2^");
+        assertError("Wrong number of arguments to operator -", "-");
+        assertError("Wrong number of arguments to operator sin", "sin");
+        assertError("Wrong number of arguments to operator sin", "sin()");
+        assertError("Wrong number of arguments to operator *", "(1+2)*");
+        assertError("Wrong number of arguments to operator !", "x*!");
+        assertError("Wrong number of arguments to operator", "()");
+        assertError("Wrong number of arguments to operator", "");
+    }
+
+    @Test
+    void operatorWithoutLeftOperand() {
+        assertError("Wrong number of arguments to operator *", "*2");
+        assertError("Wrong number of arguments to operator ^", "1+^2");
+    }
+
+    @Test
+    void postfixOperatorAppliesToOperand() throws MathException {
+        assertParsed("!x", "x!");
+        assertParsed("!3", "3!");
+        assertParsed("!(x+1)", "(x+1)!");
+        assertParsed("!x+1", "x!+1");
+        assertParsed("2*!x", "2*x!");
+    }
+
+    private void assertParsed(String expected, String exp) throws MathException {
+        assertEquals(new Parser(eval, expected).parse(), new Parser(eval, exp).parse(), exp);
+    }
+
+    private void assertError(String message, String exp) {
+        MathException e = assertThrows(MathException.class, () -> new Parser(eval, exp).parse(), exp);
+        assertEquals(message, e.getMessage(), exp);
+    }
+}
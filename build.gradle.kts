@@ -8,10 +8,14 @@ version = "1.2"
 
 subprojects {
     apply(plugin = "java")
-    apply(plugin = "org.jetbrains.intellij")
 
     repositories {
         mavenCentral()
     }
 
 }
+
+// the plain Java libraries used by the plugins do not depend on the IDE
+configure(subprojects.filter { it.name != "IntelliCalcCore" }) {
+    apply(plugin = "org.jetbrains.intellij")
+}
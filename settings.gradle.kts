@@ -2,5 +2,6 @@ rootProject.name = "intelli-plugins"
 include(
         "ConfigurableFilename",
         "IntelliCalc",
+        "IntelliCalcCore",
         "ZipChanges"
 )
\ No newline at end of file